@@ -61,4 +61,126 @@ public interface Properties {
      * Boolean property which enables the {@link HiddenMethodFilter} when set to <code>true</code>.
      */
     String HIDDEN_METHOD_FILTER_ACTIVE = "org.eclipse.krazo.hiddenMethodFilterActive";
+
+    /**
+     * Maximum time in milliseconds to wait for models of type {@link java.util.concurrent.CompletionStage}
+     * to complete before the view is rendered. Zero or less waits without limit.
+     */
+    String MODEL_TIMEOUT = "org.eclipse.krazo.modelTimeout";
+
+    /**
+     * Executor for asynchronous controllers only, i.e. controllers which return a
+     * {@link java.util.concurrent.CompletionStage} or resume a suspended
+     * {@link jakarta.ws.rs.container.AsyncResponse}. Controller methods themselves always run on
+     * the thread processing the request. Once their result is available, the request is finished
+     * and the view is rendered on the executor, which also runs the tasks submitted to the
+     * {@link org.eclipse.krazo.lifecycle.RequestContextExecutor}. The value {@code virtual} uses
+     * a new virtual thread per task (Java 21 or newer), a positive number uses a pool with that
+     * many threads. By default, the thread completing the result finishes the request.
+     * Synchronous controllers and their views are never run on the executor.
+     */
+    String CONTROLLER_EXECUTOR = "org.eclipse.krazo.controllerExecutor";
+
+    /**
+     * Maximum number of bytes of rendered views kept by the output cache for controllers
+     * annotated with {@link org.eclipse.krazo.core.CachedView}. Defaults to 32 MiB.
+     */
+    String VIEW_CACHE_SIZE = "org.eclipse.krazo.viewCacheSize";
+
+    /**
+     * Boolean property which stores the views cached for {@link org.eclipse.krazo.core.CachedView}
+     * in direct buffers outside of the Java heap when set to <code>true</code>.
+     */
+    String VIEW_CACHE_OFF_HEAP = "org.eclipse.krazo.viewCacheOffHeap";
+
+    /**
+     * Maximum time in milliseconds a request waits for another request rendering the same
+     * {@link org.eclipse.krazo.core.CachedView} before rendering the view on its own. Defaults to
+     * 5000, which is also used for zero or less, so requests never wait without limit.
+     */
+    String VIEW_CACHE_WAIT_TIMEOUT = "org.eclipse.krazo.viewCacheWaitTimeout";
+
+    /**
+     * Boolean property which buffers rendered views and sends them with a weak {@code ETag}
+     * when set to <code>true</code>. Requests with a matching {@code If-None-Match} header are
+     * answered with {@code 304 Not Modified}.
+     */
+    String VIEW_ETAG = "org.eclipse.krazo.viewETag";
+
+    /**
+     * Boolean property which renders views into a buffer before sending them when set to
+     * <code>true</code>. Buffered views are sent with a {@code Content-Length} header, and
+     * nothing is sent if the view engine fails.
+     */
+    String VIEW_BUFFER = "org.eclipse.krazo.viewBuffer";
+
+    /**
+     * Maximum number of bytes buffered for {@link #VIEW_BUFFER} and {@link #VIEW_ETAG}. Larger
+     * views are streamed. Defaults to 1 MiB.
+     */
+    String VIEW_BUFFER_MAX_SIZE = "org.eclipse.krazo.viewBufferMaxSize";
+
+    /**
+     * The view rendered with status 500 if the view engine fails while rendering a buffered view.
+     * By default, the failure is handled like any other exception.
+     */
+    String ERROR_VIEW = "org.eclipse.krazo.errorView";
+
+    /**
+     * Boolean property which compresses rendered views with gzip or deflate, as accepted by the
+     * client, when set to <code>true</code>.
+     */
+    String VIEW_COMPRESSION = "org.eclipse.krazo.viewCompression";
+
+    /**
+     * The compression level from 1 (fastest) to 9 (smallest) used for {@link #VIEW_COMPRESSION}.
+     * Defaults to the default level of {@link java.util.zip.Deflater}.
+     */
+    String VIEW_COMPRESSION_LEVEL = "org.eclipse.krazo.viewCompressionLevel";
+
+    /**
+     * Views smaller than this number of bytes are not compressed. Defaults to 1024.
+     */
+    String VIEW_COMPRESSION_MIN_SIZE = "org.eclipse.krazo.viewCompressionMinSize";
+
+    /**
+     * Comma separated list of view file extensions, like {@code .html}, of views without dynamic
+     * content. Such views are served like views of controllers annotated with
+     * {@link org.eclipse.krazo.core.StaticView}.
+     */
+    String STATIC_VIEW_EXTENSIONS = "org.eclipse.krazo.staticViewExtensions";
+
+    /**
+     * Boolean property which removes comments and collapses whitespace in rendered HTML views
+     * when set to <code>true</code>.
+     */
+    String VIEW_MINIFICATION = "org.eclipse.krazo.viewMinification";
+
+    /**
+     * The maximum number of views rendered concurrently by a view engine. Can be set for a single
+     * engine by appending its class name, like
+     * {@code org.eclipse.krazo.renderConcurrency.org.eclipse.krazo.engine.JspViewEngine}.
+     * By default, the number of renders is not limited.
+     */
+    String RENDER_CONCURRENCY = "org.eclipse.krazo.renderConcurrency";
+
+    /**
+     * The maximum number of requests waiting for a view engine which reached its
+     * {@link #RENDER_CONCURRENCY} limit. Defaults to the limit.
+     */
+    String RENDER_QUEUE_SIZE = "org.eclipse.krazo.renderQueueSize";
+
+    /**
+     * The maximum time in milliseconds a request waits for a view engine which reached its
+     * {@link #RENDER_CONCURRENCY} limit. Defaults to 1000.
+     */
+    String RENDER_QUEUE_TIMEOUT = "org.eclipse.krazo.renderQueueTimeout";
+
+    /**
+     * Views which take longer than this number of milliseconds to render are aborted with status
+     * 503. At the deadline the render releases its {@link #RENDER_CONCURRENCY} permit and the
+     * rendering thread is interrupted, its next write fails. Responses which are already committed
+     * are cut off instead, so combine it with {@link #VIEW_BUFFER}. By default, there is no timeout.
+     */
+    String RENDER_TIMEOUT = "org.eclipse.krazo.renderTimeout";
 }
@@ -84,6 +84,25 @@ public class BindingResultImpl implements BindingResult {
         this.bindingErrors.add(bindingError);
     }
 
+    /**
+     * Moves all errors into another binding result, so they can be consumed in a request context
+     * on another thread. Unconsumed errors are reported by the target only.
+     *
+     * @param target the binding result to move the errors to
+     */
+    public void transferTo(BindingResultImpl target) {
+        target.addValidationErrors(validationErrors);
+        bindingErrors.forEach(target::addBindingError);
+        if (consumed) {
+            target.markConsumed();
+        }
+        consumed = true;
+    }
+
+    void markConsumed() {
+        this.consumed = true;
+    }
+
     public boolean hasUnconsumedErrors() {
         return !consumed && (!bindingErrors.isEmpty() || !validationErrors.isEmpty());
     }
@@ -18,6 +18,8 @@
 package org.eclipse.krazo.bootstrap;
 
 import org.eclipse.krazo.binding.convert.MvcConverterProvider;
+import org.eclipse.krazo.core.ViewCacheFilter;
+import org.eclipse.krazo.core.ViewCaptureInterceptor;
 import org.eclipse.krazo.core.ViewResponseFilter;
 import org.eclipse.krazo.core.ViewableWriter;
 import org.eclipse.krazo.forms.HiddenMethodFilter;
@@ -45,6 +47,8 @@ public class DefaultConfigProvider implements ConfigProvider {
         Arrays.asList(
             ViewResponseFilter.class,
             ViewableWriter.class,
+            ViewCacheFilter.class,
+            ViewCaptureInterceptor.class,
             CsrfValidateFilter.class,
             CsrfProtectFilter.class,
             CsrfExceptionMapper.class,
@@ -25,6 +25,7 @@ import jakarta.inject.Inject;
 import jakarta.interceptor.AroundInvoke;
 import jakarta.interceptor.Interceptor;
 import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.container.AsyncResponse;
 import org.eclipse.krazo.lifecycle.RequestLifecycle;
 
 /**
@@ -45,6 +46,16 @@ public class AroundControllerInterceptor implements Serializable {
     @AroundInvoke
     public Object validateMethodInvocation(InvocationContext ctx) throws Exception {
         LOGGER.log(Level.FINE, "Invoking method: {0}#{1}", new Object[] { ctx.getMethod().getDeclaringClass().getName(), ctx.getMethod().getName() });
+
+        // controllers may resume a suspended response from any thread
+        final Object[] parameters = ctx.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i] instanceof AsyncResponse) {
+                parameters[i] = requestLifecycle.wrapAsyncResponse((AsyncResponse) parameters[i]);
+                ctx.setParameters(parameters);
+            }
+        }
+
         return requestLifecycle.aroundController(ctx.getMethod(), ctx::proceed);
     }
 
@@ -33,7 +33,9 @@ import org.eclipse.krazo.engine.ViewEngineFinder;
 import org.eclipse.krazo.event.*;
 import org.eclipse.krazo.forms.HiddenMethodFilter;
 import org.eclipse.krazo.jaxrs.JaxRsContextProducer;
+import org.eclipse.krazo.lifecycle.ControllerExecutor;
 import org.eclipse.krazo.lifecycle.EventDispatcher;
+import org.eclipse.krazo.lifecycle.RequestContextExecutor;
 import org.eclipse.krazo.lifecycle.RequestLifecycle;
 import org.eclipse.krazo.locale.DefaultLocaleResolver;
 import org.eclipse.krazo.locale.LocaleResolverChain;
@@ -51,8 +53,8 @@ import jakarta.mvc.Controller;
 import jakarta.mvc.RedirectScoped;
 import jakarta.mvc.event.MvcEvent;
 import java.lang.reflect.Type;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -70,7 +72,7 @@ public class KrazoCdiExtension implements Extension {
 
     private static final Logger log = Logger.getLogger(KrazoCdiExtension.class.getName());
 
-    private static Set<Class<? extends MvcEvent>> observedEvents;
+    private static final Set<Class<? extends MvcEvent>> observedEvents = ConcurrentHashMap.newKeySet();
 
     private final AnnotatedTypeProcessor annotatedTypeProcessor = new AnnotatedTypeProcessor();
 
@@ -104,10 +106,17 @@ public class KrazoCdiExtension implements Extension {
                 ModelsImpl.class,
                 ViewableWriter.class,
                 ViewResponseFilter.class,
+                ViewPrefixWriter.class,
+                ViewCache.class,
+                ViewCacheFilter.class,
+                ViewCaptureInterceptor.class,
+                RenderLimiter.class,
 
                 // lifecycle
+                ControllerExecutor.class,
                 EventDispatcher.class,
                 RequestLifecycle.class,
+                RequestContextExecutor.class,
 
                 // engine
                 FaceletsViewEngine.class,
@@ -202,10 +211,7 @@ public class KrazoCdiExtension implements Extension {
      *
      * @param eventType event type.
      */
-    public static synchronized void addObservedEvent(Class<? extends MvcEvent> eventType) {
-        if (observedEvents == null) {
-            observedEvents = new HashSet<>();
-        }
+    public static void addObservedEvent(Class<? extends MvcEvent> eventType) {
         observedEvents.add(eventType);
     }
 
@@ -215,7 +221,7 @@ public class KrazoCdiExtension implements Extension {
      * @param eventType event type.
      * @return outcome of test.
      */
-    public static synchronized boolean isEventObserved(Class<? extends MvcEvent> eventType) {
-        return observedEvents != null && observedEvents.contains(eventType);
+    public static boolean isEventObserved(Class<? extends MvcEvent> eventType) {
+        return observedEvents.contains(eventType);
     }
 }
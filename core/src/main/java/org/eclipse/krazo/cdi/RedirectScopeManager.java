@@ -49,6 +49,8 @@ import jakarta.ws.rs.core.UriBuilder;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The ApplicationScoped redirect scope manager.
@@ -66,10 +68,17 @@ public class RedirectScopeManager {
     private static final String INSTANCE = "Instance-";
     private static final String CREATIONAL = "Creational-";
 
+    /**
+     * Guards the generation of unique scope ids. A lock instead of a monitor, so virtual
+     * threads are not pinned to their carrier while waiting.
+     */
+    private final Lock scopeIdLock = new ReentrantLock();
+
     /**
      * Stores the HTTP servlet request we are working for.
      */
     @Inject
+    @JaxRsContext
     private HttpServletRequest request;
 
     /**
@@ -279,13 +288,16 @@ public class RedirectScopeManager {
         HttpSession session = request.getSession();
         String scopeId = UUID.randomUUID().toString();
         String sessionKey = SCOPE_ID + "-" + scopeId;
-        synchronized (this) {
+        scopeIdLock.lock();
+        try {
             while (session.getAttribute(sessionKey) != null) {
                 scopeId = UUID.randomUUID().toString();
                 sessionKey = SCOPE_ID + "-" + scopeId;
             }
             session.setAttribute(sessionKey, new HashMap<>());
             request.setAttribute(SCOPE_ID, scopeId);
+        } finally {
+            scopeIdLock.unlock();
         }
         return scopeId;
     }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Caches the rendered view of a controller method or of all methods of a controller class.
+ * While an entry is fresh, GET requests are answered from the cache without invoking the
+ * controller. Only successful responses are cached.</p>
+ *
+ * <p><strong>Only use this annotation for public views.</strong> Cached views are served by a
+ * request filter, so neither the controller nor its interceptors are invoked and a view cached
+ * for one user is served to everybody. Controllers annotated with
+ * {@link jakarta.annotation.security.RolesAllowed}, {@link jakarta.annotation.security.DenyAll}
+ * or {@link jakarta.mvc.security.CsrfProtected} are never cached. Other security checks, e.g.
+ * interceptors or programmatic checks in the controller, are not detected.</p>
+ *
+ * <p>Only headers of the JAX-RS response which describe the view itself are cached along with
+ * it, e.g. {@code Cache-Control}, {@code Content-Language} or {@code X-Frame-Options}. Other
+ * headers, like the CSRF token header, are not cached. Responses marked with
+ * {@code Cache-Control: private} or {@code no-store}, responses setting a cookie and responses
+ * which created a session are not cached at all.</p>
+ *
+ * <p>Entries are keyed by the request URI. Query parameters, headers and the request locale
+ * are ignored unless listed in {@link #varyByParams()}, {@link #varyByHeaders()} or
+ * {@link #varyByLocale()}. As all users are served the same content, views containing user
+ * specific data like CSRF tokens must not be cached.</p>
+ *
+ * <p>Once an entry has expired, it may still be served for {@link #staleWhileRevalidate()} while
+ * a single request renders the view again and replaces the entry.</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface CachedView {
+
+    /**
+     * How long a rendered view is served from the cache.
+     *
+     * @return the time to live in {@link #unit()}
+     */
+    long ttl();
+
+    /**
+     * How long an expired entry may still be served while the view is rendered again.
+     * Defaults to zero, so expired entries are never served.
+     *
+     * @return the stale period in {@link #unit()}
+     */
+    long staleWhileRevalidate() default 0;
+
+    /**
+     * @return the unit of {@link #ttl()} and {@link #staleWhileRevalidate()}
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * @return whether the request locale is part of the cache key
+     */
+    boolean varyByLocale() default false;
+
+    /**
+     * @return the names of the request headers which are part of the cache key
+     */
+    String[] varyByHeaders() default {};
+
+    /**
+     * @return the names of the request parameters which are part of the cache key
+     */
+    String[] varyByParams() default {};
+
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Insertion-ordered map optimized for the small number of entries typically stored in
+ * {@link ModelsImpl}. Keys and values are stored next to each other in a single flat array
+ * in insertion order. Lookups scan that array linearly as long as the map is small. Once it
+ * grows past {@link #HASH_THRESHOLD} entries, an open-addressing hash index pointing into the
+ * array is built, so lookups stay constant time for larger maps.
+ *
+ * <p>The map does not support {@code null} keys and is not thread-safe.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+class CompactMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * Maximum number of entries which are looked up by a linear scan.
+     */
+    static final int HASH_THRESHOLD = 8;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private static final Object[] EMPTY = {};
+
+    /**
+     * Keys at even and values at odd positions, in insertion order.
+     */
+    private Object[] entries = EMPTY;
+
+    /**
+     * Open-addressing hash index or {@code null} while the map is small. Each slot stores the
+     * position of the entry plus one, zero marks an empty slot.
+     */
+    private int[] index;
+
+    private int size;
+
+    private int modCount;
+
+    private Set<Entry<K, V>> entrySet;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        int i = indexOf(key);
+        return i >= 0 ? valueAt(i) : null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "Key must not be null");
+
+        int i = indexOf(key);
+        if (i >= 0) {
+            V old = valueAt(i);
+            entries[2 * i + 1] = value;
+            return old;
+        }
+
+        if (2 * size == entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(2 * INITIAL_CAPACITY, 2 * entries.length));
+        }
+        entries[2 * size] = key;
+        entries[2 * size + 1] = value;
+        size++;
+        modCount++;
+
+        if (index != null && 2 * size <= index.length) {
+            insert(size - 1);
+        } else if (size > HASH_THRESHOLD) {
+            rebuildIndex();
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V old = valueAt(i);
+        removeAt(i);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(entries, 0, 2 * size, null);
+        index = null;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        if (index == null) {
+            for (int i = 0; i < size; i++) {
+                Object k = entries[2 * i];
+                if (k == key || key.equals(k)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int position = index[slot];
+            if (position == 0) {
+                return -1;
+            }
+            Object k = entries[2 * (position - 1)];
+            if (k == key || key.equals(k)) {
+                return position - 1;
+            }
+        }
+    }
+
+    private void removeAt(int i) {
+        int tail = size - i - 1;
+        if (tail > 0) {
+            System.arraycopy(entries, 2 * (i + 1), entries, 2 * i, 2 * tail);
+        }
+        size--;
+        entries[2 * size] = null;
+        entries[2 * size + 1] = null;
+        modCount++;
+
+        // positions behind the removed entry have shifted, so the index has to be rebuilt
+        if (size > HASH_THRESHOLD) {
+            rebuildIndex();
+        } else {
+            index = null;
+        }
+    }
+
+    private void rebuildIndex() {
+        int length = Integer.highestOneBit(2 * size - 1) << 1;
+        index = new int[length];
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    private void insert(int i) {
+        int mask = index.length - 1;
+        int slot = hash(entries[2 * i]) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = i + 1;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int i) {
+        return (K) entries[2 * i];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int i) {
+        return (V) entries[2 * i + 1];
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            checkForComodification();
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return new Node(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+    }
+
+    /**
+     * Entry which reads and writes through to the backing array.
+     */
+    private final class Node implements Entry<K, V> {
+
+        private final int position;
+
+        private Node(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public K getKey() {
+            return keyAt(position);
+        }
+
+        @Override
+        public V getValue() {
+            return valueAt(position);
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = valueAt(position);
+            entries[2 * position + 1] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+
+    }
+
+}
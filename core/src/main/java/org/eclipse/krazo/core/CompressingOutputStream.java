@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.eclipse.krazo.util.PropertyUtils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <p>Compresses a rendered view with gzip or deflate while it is written. The first bytes are
+ * held back until the view exceeds the minimum size, views smaller than that are sent
+ * uncompressed. The {@code Content-Encoding} header is only set once compression starts.</p>
+ *
+ * <p>{@link Deflater} instances are expensive to create, so they are taken from a pool shared
+ * by all requests and have to be returned by calling {@link #release()}. Flushing the stream
+ * sends everything compressed so far, which keeps streamed views working.</p>
+ */
+final class CompressingOutputStream extends OutputStream {
+
+    static final String GZIP = "gzip";
+
+    static final String DEFLATE = "deflate";
+
+    private static final int DEFAULT_MIN_SIZE = 1024;
+
+    private static final int POOL_SIZE = 32;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final Pool GZIP_DEFLATERS = new Pool(true);
+
+    private static final Pool ZLIB_DEFLATERS = new Pool(false);
+
+    private final OutputStream out;
+
+    private final MultivaluedMap<String, Object> headers;
+
+    private final String encoding;
+
+    private final int level;
+
+    private final byte[] pending;
+
+    private int count;
+
+    private Deflater deflater;
+
+    private DeflaterOutputStream deflating;
+
+    private CRC32 crc;
+
+    /**
+     * @param out the stream receiving the compressed view
+     * @param headers the response headers
+     * @param encoding the negotiated encoding, either {@link #GZIP} or {@link #DEFLATE}
+     * @param level the compression level
+     * @param minSize the minimum size of compressed views
+     */
+    CompressingOutputStream(OutputStream out, MultivaluedMap<String, Object> headers, String encoding,
+                            int level, int minSize) {
+        this.out = out;
+        this.headers = headers;
+        this.encoding = encoding;
+        this.level = level;
+        this.pending = new byte[Math.max(minSize, 0)];
+    }
+
+    /**
+     * Determines the encoding of a view, if compression is enabled.
+     *
+     * @param config the JAX-RS configuration
+     * @param request the request
+     * @return {@link #GZIP}, {@link #DEFLATE} or {@code null} if the view isn't compressed
+     */
+    static String negotiate(Configuration config, HttpServletRequest request) {
+        if (!PropertyUtils.getBooleanProperty(config, Properties.VIEW_COMPRESSION, false)) {
+            return null;
+        }
+        return negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    /**
+     * Selects gzip or deflate, whichever the client prefers, from an {@code Accept-Encoding}
+     * header. Gzip wins ties.
+     *
+     * @param acceptEncoding the header value
+     * @return the encoding or {@code null} if the client accepts neither
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        float gzip = -1;
+        float deflate = -1;
+        float any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.split(";");
+            final String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+            final float quality = quality(parts);
+            if (name.equals(GZIP) || name.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (name.equals(DEFLATE)) {
+                deflate = Math.max(deflate, quality);
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    private static float quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            final String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * @param config the JAX-RS configuration
+     * @return the configured compression level
+     */
+    static int getLevel(Configuration config) {
+        return PropertyUtils.getIntProperty(config, Properties.VIEW_COMPRESSION_LEVEL, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param config the JAX-RS configuration
+     * @return the configured minimum size of compressed views
+     */
+    static int getMinSize(Configuration config) {
+        return PropertyUtils.getIntProperty(config, Properties.VIEW_COMPRESSION_MIN_SIZE, DEFAULT_MIN_SIZE);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (deflating == null && count < pending.length) {
+            pending[count++] = (byte) b;
+            return;
+        }
+        start();
+        deflating.write(b);
+        if (crc != null) {
+            crc.update(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (deflating == null && count + len <= pending.length) {
+            System.arraycopy(b, off, pending, count, len);
+            count += len;
+            return;
+        }
+        start();
+        deflating.write(b, off, len);
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (deflating == null && count > 0) {
+            start();
+        }
+        if (deflating != null) {
+            deflating.flush();
+        }
+        out.flush();
+    }
+
+    /*
+     * Starts compressing and passes the held back bytes to the deflater.
+     */
+    private void start() throws IOException {
+        if (deflating != null) {
+            return;
+        }
+        headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+
+        if (GZIP.equals(encoding)) {
+            deflater = GZIP_DEFLATERS.acquire(level);
+            crc = new CRC32();
+            out.write(GZIP_HEADER);
+        } else {
+            deflater = ZLIB_DEFLATERS.acquire(level);
+        }
+        deflating = new DeflaterOutputStream(out, deflater, BUFFER_SIZE, true);
+        if (count > 0) {
+            deflating.write(pending, 0, count);
+            if (crc != null) {
+                crc.update(pending, 0, count);
+            }
+            count = 0;
+        }
+    }
+
+    /**
+     * Completes the compressed view, or writes the held back bytes if the view is too small
+     * to be compressed.
+     *
+     * @throws IOException if writing fails
+     */
+    void finish() throws IOException {
+        if (deflating == null) {
+            if (count > 0) {
+                out.write(pending, 0, count);
+                count = 0;
+            }
+            return;
+        }
+        deflating.finish();
+        if (crc != null) {
+            writeInt((int) crc.getValue());
+            writeInt((int) deflater.getBytesRead());
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * Returns the deflater to the pool.
+     */
+    void release() {
+        if (deflater != null) {
+            (GZIP.equals(encoding) ? GZIP_DEFLATERS : ZLIB_DEFLATERS).release(deflater);
+            deflater = null;
+        }
+    }
+
+    /**
+     * Pool of deflaters producing either raw deflate data for gzip or the zlib format.
+     */
+    private static final class Pool {
+
+        private final boolean nowrap;
+
+        private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        Pool(boolean nowrap) {
+            this.nowrap = nowrap;
+        }
+
+        Deflater acquire(int level) {
+            final Deflater deflater = deflaters.poll();
+            if (deflater == null) {
+                return new Deflater(level, nowrap);
+            }
+            size.decrementAndGet();
+            deflater.setLevel(level);
+            return deflater;
+        }
+
+        void release(Deflater deflater) {
+            deflater.reset();
+            if (size.incrementAndGet() <= POOL_SIZE) {
+                deflaters.offer(deflater);
+            } else {
+                size.decrementAndGet();
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Model value which is computed only when a view actually reads it. Put instances into
+ * {@link jakarta.mvc.Models} for values which are expensive to compute and not used by all
+ * variants of a view:
+ *
+ * <pre>
+ * models.put("sidebar", LazyModel.of(() -&gt; sidebarService.load()));
+ * </pre>
+ *
+ * <p>The value is resolved transparently by {@link ModelsImpl}, so view engines and
+ * expression languages never see the wrapper. The supplier is invoked at most once, the
+ * result is remembered for the rest of the request.</p>
+ *
+ * @param <T> the type of the value
+ */
+public final class LazyModel<T> implements Supplier<T> {
+
+    private final Lock lock = new ReentrantLock();
+
+    private Supplier<? extends T> supplier;
+
+    private volatile boolean resolved;
+
+    private T value;
+
+    private LazyModel(Supplier<? extends T> supplier) {
+        this.supplier = Objects.requireNonNull(supplier, "Supplier must not be null");
+    }
+
+    /**
+     * Creates a new lazy model value.
+     *
+     * @param supplier computes the value on first access
+     * @param <T> the type of the value
+     * @return the lazy model value
+     */
+    public static <T> LazyModel<T> of(Supplier<? extends T> supplier) {
+        return new LazyModel<>(supplier);
+    }
+
+    /**
+     * Returns the value, invoking the supplier if this is the first access.
+     *
+     * @return the value
+     */
+    @Override
+    public T get() {
+        if (!resolved) {
+            lock.lock();
+            try {
+                if (!resolved) {
+                    value = supplier.get();
+                    supplier = null;
+                    resolved = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns whether the value has already been computed.
+     *
+     * @return {@code true} if the supplier was invoked
+     */
+    public boolean isResolved() {
+        return resolved;
+    }
+
+    /**
+     * Returns the value if the given object is a {@link LazyModel} or the object itself otherwise.
+     *
+     * @param value a model value
+     * @return the resolved model value
+     */
+    public static Object resolve(Object value) {
+        return value instanceof LazyModel ? ((LazyModel<?>) value).get() : value;
+    }
+
+}
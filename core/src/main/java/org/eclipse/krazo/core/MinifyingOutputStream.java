@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.eclipse.krazo.util.PropertyUtils;
+
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Minifies a rendered HTML view while it is written. Runs of whitespace between tags and in
+ * text are collapsed into a single space, or a single line break if the run contained one, and
+ * comments are removed. The content of {@code pre}, {@code textarea}, {@code script} and
+ * {@code style} elements and quoted attribute values are passed on unchanged.</p>
+ *
+ * <p>The view is processed in a single pass. Only the start of a tag, up to the end of its
+ * name, is held back to decide how to handle it, so flushing the stream sends everything
+ * except such an incomplete tag. Apart from its buffers, the stream allocates nothing.
+ * It works on the bytes of the view and therefore requires a charset which encodes ASCII
+ * characters as single bytes, like UTF-8.</p>
+ */
+final class MinifyingOutputStream extends OutputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte[][] RAW_ELEMENTS = {
+        ascii("pre"), ascii("textarea"), ascii("script"), ascii("style")
+    };
+
+    private static final byte[] COMMENT_START = ascii("<!--");
+
+    // '<', '/' and the longest element name we are looking for, plus the delimiter
+    private static final int MAX_LOOKAHEAD = 2 + 8 + 1;
+
+    private static final int TEXT = 0;
+    private static final int LOOKAHEAD = 1;
+    private static final int TAG = 2;
+    private static final int QUOTED = 3;
+    private static final int COMMENT = 4;
+    private static final int RAW = 5;
+
+    private final OutputStream out;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int count;
+
+    private final byte[] lookahead = new byte[MAX_LOOKAHEAD];
+
+    private int lookaheadCount;
+
+    private int state = TEXT;
+
+    // pending whitespace in text and tags, 0 if none
+    private byte space;
+
+    private byte quote;
+
+    private int dashes;
+
+    // the raw element which starts with the current tag, or whose content is being copied
+    private byte[] rawElement;
+
+    private int rawMatch;
+
+    /**
+     * @param out the stream receiving the minified view
+     */
+    MinifyingOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Determines if a view is minified.
+     *
+     * @param config the JAX-RS configuration
+     * @param mediaType the media type of the view including the charset
+     * @return {@code true} if minification is enabled and the view is HTML in a suitable charset
+     */
+    static boolean isEnabled(Configuration config, MediaType mediaType) {
+        if (!PropertyUtils.getBooleanProperty(config, Properties.VIEW_MINIFICATION, false)
+            || !MediaType.TEXT_HTML_TYPE.isCompatible(mediaType)) {
+            return false;
+        }
+        final String charset = mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+        try {
+            final byte[] bytes = "<>".getBytes(charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset));
+            return bytes.length == 2 && bytes[0] == '<' && bytes[1] == '>';
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        process((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            process(b[i]);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Writes everything held back to the underlying stream, without closing it. Pending
+     * whitespace at the end of the view is dropped.
+     *
+     * @throws IOException if writing fails
+     */
+    void finish() throws IOException {
+        if (lookaheadCount > 0) {
+            emitSpace();
+        }
+        for (int i = 0; i < lookaheadCount; i++) {
+            emit(lookahead[i]);
+        }
+        lookaheadCount = 0;
+        drain();
+    }
+
+    private void process(byte b) throws IOException {
+        switch (state) {
+            case TEXT:
+                if (isWhitespace(b)) {
+                    space = space == '\n' || b == '\n' ? (byte) '\n' : (byte) ' ';
+                } else if (b == '<') {
+                    lookahead[0] = b;
+                    lookaheadCount = 1;
+                    state = LOOKAHEAD;
+                } else {
+                    emitSpace();
+                    emit(b);
+                }
+                break;
+            case LOOKAHEAD:
+                lookahead(b);
+                break;
+            case TAG:
+                if (isWhitespace(b)) {
+                    space = ' ';
+                    break;
+                }
+                if (b == '>') {
+                    space = 0;
+                }
+                emitSpace();
+                emit(b);
+                if (b == '"' || b == '\'') {
+                    quote = b;
+                    state = QUOTED;
+                } else if (b == '>') {
+                    state = rawElement != null ? RAW : TEXT;
+                    rawMatch = 0;
+                }
+                break;
+            case QUOTED:
+                emit(b);
+                if (b == quote) {
+                    state = TAG;
+                }
+                break;
+            case COMMENT:
+                if (b == '>' && dashes >= 2) {
+                    state = TEXT;
+                }
+                dashes = b == '-' ? dashes + 1 : 0;
+                break;
+            case RAW:
+                raw(b);
+                break;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /*
+     * Collects the start of a tag until it is known whether it is a comment, the start of a raw
+     * element, or anything else.
+     */
+    private void lookahead(byte b) throws IOException {
+        lookahead[lookaheadCount++] = b;
+
+        // comments
+        if (lookahead[1] == '!') {
+            if (!startsWith(lookahead, lookaheadCount, COMMENT_START)) {
+                startTag(null);
+            } else if (lookaheadCount == COMMENT_START.length) {
+                // whitespace before the comment is kept, as the text may continue after it
+                lookaheadCount = 0;
+                dashes = 0;
+                state = COMMENT;
+            }
+            return;
+        }
+
+        // element names
+        final int nameStart = lookahead[1] == '/' ? 2 : 1;
+        final int position = lookaheadCount - 1;
+        if (position == 1 && b == '/') {
+            return;
+        }
+        if (position == nameStart ? isLetter(b) : isNameCharacter(b) && lookaheadCount < MAX_LOOKAHEAD) {
+            return;
+        }
+        if (position == nameStart) {
+            // no element name at all, so this is just text
+            emitSpace();
+            for (int i = 0; i < position; i++) {
+                emit(lookahead[i]);
+            }
+            lookaheadCount = 0;
+            state = TEXT;
+            process(b);
+            return;
+        }
+        startTag(nameStart == 1 && isDelimiter(b) ? rawElement(nameStart, position) : null);
+    }
+
+    private void startTag(byte[] raw) throws IOException {
+        emitSpace();
+        final int last = lookaheadCount - 1;
+        for (int i = 0; i < last; i++) {
+            emit(lookahead[i]);
+        }
+        final byte b = lookahead[last];
+        lookaheadCount = 0;
+        rawElement = raw;
+        state = TAG;
+        process(b);
+    }
+
+    /*
+     * Copies the content of a raw element, looking for its end tag.
+     */
+    private void raw(byte b) throws IOException {
+        final int length = rawElement.length + 2;
+        if (rawMatch == length) {
+            if (isDelimiter(b)) {
+                rawElement = null;
+                state = TAG;
+                process(b);
+                return;
+            }
+            rawMatch = 0;
+        }
+        emit(b);
+        if (rawMatch == 0 ? b == '<' : rawMatch == 1 ? b == '/' : toLowerCase(b) == rawElement[rawMatch - 2]) {
+            rawMatch++;
+        } else {
+            rawMatch = b == '<' ? 1 : 0;
+        }
+    }
+
+    private byte[] rawElement(int start, int end) {
+        for (byte[] element : RAW_ELEMENTS) {
+            if (element.length == end - start) {
+                int i = 0;
+                while (i < element.length && toLowerCase(lookahead[start + i]) == element[i]) {
+                    i++;
+                }
+                if (i == element.length) {
+                    return element;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void emitSpace() throws IOException {
+        if (space != 0) {
+            emit(space);
+            space = 0;
+        }
+    }
+
+    private void emit(byte b) throws IOException {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = b;
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+        for (int i = 0; i < length && i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return isWhitespace(b) || b == '>' || b == '/';
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    private static boolean isNameCharacter(byte b) {
+        return isLetter(b) || (b >= '0' && b <= '9');
+    }
+
+    private static byte toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -20,15 +20,29 @@ package org.eclipse.krazo.core;
 
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.mvc.Models;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementation of {@link jakarta.mvc.Models} interface. A CDI class that delegates
- * to a {@link java.util.Map} implementation.
+ * to a {@link java.util.Map} implementation. Values wrapped in {@link LazyModel} are
+ * resolved transparently when they are read. Values of type {@link CompletionStage} are
+ * replaced by their results before the view is rendered, see {@link #awaitPendingModels(long, TimeUnit)}.
  *
  * @author Santiago Pericas-Geertsen
  * @author Christian Kaltepoth
@@ -36,12 +50,25 @@ import java.util.Objects;
 @RequestScoped
 public class ModelsImpl implements Models {
 
-    private final Map<String, Object> map = new LinkedHashMap<>();
+    private Entries entries = new Entries();
+
+    private final Map<String, Object> view = new ModelsView();
 
     @Override
     public Models put(String name, Object model) {
         Objects.requireNonNull(name, "Name must not be null");
-        map.put(name, model);
+        final Lock lock = entries.lock();
+        try {
+            entries.map.put(name, model);
+            if (model instanceof CompletionStage) {
+                if (entries.pending == null) {
+                    entries.pending = new LinkedHashSet<>();
+                }
+                entries.pending.add(name);
+            }
+        } finally {
+            unlock(lock);
+        }
         return this;
     }
 
@@ -54,16 +81,290 @@ public class ModelsImpl implements Models {
     public <T> T get(String name, Class<T> type) {
         Objects.requireNonNull(name, "Name must not be null");
         Objects.requireNonNull(type, "Type must not be null");
-        return type.cast(map.get(name));
+        return type.cast(LazyModel.resolve(entries.get(name)));
     }
 
+    /**
+     * Returns a read-only view of the models. The view is not a snapshot, models added
+     * later on are visible through it. Lazy values are only resolved when the value of
+     * the corresponding entry is read.
+     *
+     * @return read-only view of the models
+     */
     @Override
     public Map<String, Object> asMap() {
-        return Collections.unmodifiableMap(new LinkedHashMap<>(map));
+        return view;
     }
 
     @Override
     public Iterator<String> iterator() {
-        return map.keySet().iterator();
+        final Lock lock = entries.lock();
+        if (lock == null) {
+            return entries.map.keySet().iterator();
+        }
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(entries.map.keySet())).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lets the given models share the entries of these models, so models put into either of
+     * them are visible in both. This carries the models of a request over to request contexts
+     * on other threads. Once shared, the entries are guarded by a lock and may be used by
+     * several threads at the same time, and iterating the models iterates over a snapshot.
+     *
+     * @param target the models which replace their own entries with the ones of these models,
+     *               may be a client proxy of the request-scoped bean
+     */
+    public void shareWith(ModelsImpl target) {
+        if (entries.lock == null) {
+            entries.lock = new ReentrantLock();
+        }
+        target.adopt(entries);
+    }
+
+    /*
+     * Called through the client proxy of the target, so the entries end up in the contextual
+     * instance and not in the fields of the proxy.
+     */
+    protected void adopt(Entries entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Returns whether models of type {@link CompletionStage} have been added.
+     *
+     * @return {@code true} if there are models to wait for
+     */
+    public boolean hasPendingModels() {
+        final Lock lock = entries.lock();
+        try {
+            return entries.pending != null;
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    /**
+     * Waits for all models of type {@link CompletionStage} to complete and replaces them
+     * with their results. The stages are awaited together, so the time spent waiting is
+     * determined by the slowest stage and not by the sum of all of them.
+     *
+     * @param timeout the maximum time to wait, zero or less to wait without limit
+     * @param unit the unit of the timeout
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     * @throws ExecutionException if one of the stages completed exceptionally
+     * @throws TimeoutException if not all stages completed in time
+     */
+    public void awaitPendingModels(long timeout, TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+
+        final List<String> names;
+        final List<CompletableFuture<?>> futures;
+        Lock lock = entries.lock();
+        try {
+            if (entries.pending == null) {
+                return;
+            }
+            names = new ArrayList<>(entries.pending.size());
+            futures = new ArrayList<>(entries.pending.size());
+            for (String name : entries.pending) {
+                final Object value = entries.map.get(name);
+                if (value instanceof CompletionStage) {     // might have been replaced in the meantime
+                    names.add(name);
+                    futures.add(((CompletionStage<?>) value).toCompletableFuture());
+                }
+            }
+        } finally {
+            unlock(lock);
+        }
+
+        final CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        if (timeout > 0) {
+            all.get(timeout, unit);
+        } else {
+            all.get();
+        }
+
+        lock = entries.lock();
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                entries.map.put(names.get(i), futures.get(i).join());
+            }
+            entries.pending = null;
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    private static void unlock(Lock lock) {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read-only view of the models which resolves lazy values on access.
+     */
+    private final class ModelsView extends AbstractMap<String, Object> {
+
+        private Set<Entry<String, Object>> entrySet;
+
+        @Override
+        public Object get(Object key) {
+            return LazyModel.resolve(entries.get(key));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            final Lock lock = entries.lock();
+            try {
+                return entries.map.containsKey(key);
+            } finally {
+                unlock(lock);
+            }
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            if (entrySet == null) {
+                entrySet = new AbstractSet<Entry<String, Object>>() {
+
+                    @Override
+                    public Iterator<Entry<String, Object>> iterator() {
+                        Iterator<Entry<String, Object>> iterator = entries.entryIterator();
+                        return new Iterator<Entry<String, Object>>() {
+
+                            @Override
+                            public boolean hasNext() {
+                                return iterator.hasNext();
+                            }
+
+                            @Override
+                            public Entry<String, Object> next() {
+                                return new ModelEntry(iterator.next());
+                            }
+
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return entries.size();
+                    }
+
+                };
+            }
+            return entrySet;
+        }
+
+    }
+
+    /**
+     * Read-only entry which resolves lazy values on access.
+     */
+    private static final class ModelEntry implements Map.Entry<String, Object> {
+
+        private final Map.Entry<String, Object> entry;
+
+        private ModelEntry(Map.Entry<String, Object> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public String getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public Object getValue() {
+            return LazyModel.resolve(entry.getValue());
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+    }
+
+    /**
+     * The entries of the models, which may be shared by several instances. Shared entries are
+     * guarded by a lock, the entries of a single request context are not.
+     */
+    protected static final class Entries {
+
+        private final Map<String, Object> map = new CompactMap<>();
+
+        private Set<String> pending;
+
+        private volatile Lock lock;
+
+        /*
+         * Acquires the lock of shared entries and returns it, or returns null if not shared.
+         */
+        private Lock lock() {
+            final Lock current = lock;
+            if (current != null) {
+                current.lock();
+            }
+            return current;
+        }
+
+        private Object get(Object key) {
+            final Lock current = lock();
+            try {
+                return map.get(key);
+            } finally {
+                unlock(current);
+            }
+        }
+
+        private int size() {
+            final Lock current = lock();
+            try {
+                return map.size();
+            } finally {
+                unlock(current);
+            }
+        }
+
+        private Iterator<Map.Entry<String, Object>> entryIterator() {
+            final Lock current = lock();
+            if (current == null) {
+                return map.entrySet().iterator();
+            }
+            try {
+                final List<Map.Entry<String, Object>> snapshot = new ArrayList<>(map.size());
+                for (Map.Entry<String, Object> entry : map.entrySet()) {
+                    snapshot.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+                }
+                return snapshot.iterator();
+            } finally {
+                current.unlock();
+            }
+        }
+
     }
 }
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.eclipse.krazo.jaxrs.JaxRsContext;
+import org.eclipse.krazo.util.PropertyUtils;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.mvc.engine.ViewEngine;
+import jakarta.ws.rs.ServerErrorException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Configuration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
+
+/**
+ * <p>Limits the number of views rendered concurrently by each view engine, so that expensive
+ * views cannot occupy all request threads. The limit is configured with
+ * {@link Properties#RENDER_CONCURRENCY}, globally or for a single engine by appending the class
+ * name of the engine to the property name.</p>
+ *
+ * <p>Once the limit is reached, up to {@link Properties#RENDER_QUEUE_SIZE} requests wait
+ * at most {@link Properties#RENDER_QUEUE_TIMEOUT} milliseconds for another render to finish.
+ * All other requests are answered with {@code 503 Service Unavailable} and a
+ * {@code Retry-After} header right away.</p>
+ *
+ * <p>Renders may be given a timeout, see {@link Properties#RENDER_TIMEOUT}. Once it has
+ * passed, the render gives up its permit and the rendering thread is interrupted, whether
+ * or not the engine is still writing.</p>
+ *
+ * <p>Applications may inject this bean to monitor the number of active, waiting and rejected
+ * renders of each engine.</p>
+ */
+@ApplicationScoped
+public class RenderLimiter {
+
+    private static final long DEFAULT_QUEUE_TIMEOUT = 1000L;
+
+    @Inject
+    @JaxRsContext
+    private Configuration config;
+
+    @Inject
+    private Messages messages;
+
+    private final ConcurrentMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private final AtomicReference<ScheduledThreadPoolExecutor> timer = new AtomicReference<>();
+
+    /**
+     * Waits until the engine may render another view.
+     *
+     * @param engine the view engine
+     * @return the bulkhead of the engine, which has to be released once the view is rendered
+     * @throws ServiceUnavailableException if the engine is busy
+     */
+    Bulkhead acquire(ViewEngine engine) {
+        final Bulkhead bulkhead = bulkheads.computeIfAbsent(getEngineName(engine.getClass()), this::createBulkhead);
+        bulkhead.acquire();
+        return bulkhead;
+    }
+
+    /**
+     * Waits until the engine may render another view and watches the render for the given
+     * timeout. Once the timeout has passed, the permit is released, the callback is invoked
+     * and the current thread is interrupted.
+     *
+     * @param engine the view engine
+     * @param timeout the timeout in milliseconds, zero or less for none
+     * @param onTimeout invoked by the timer thread once the timeout has passed
+     * @return the render, which has to be released once the view is rendered
+     * @throws ServiceUnavailableException if the engine is busy
+     */
+    Render acquire(ViewEngine engine, long timeout, Runnable onTimeout) {
+        final Render render = new Render(acquire(engine), onTimeout);
+        if (timeout > 0) {
+            render.watchdog = timer().schedule(render::timeOut, timeout, TimeUnit.MILLISECONDS);
+        }
+        return render;
+    }
+
+    private ScheduledThreadPoolExecutor timer() {
+        ScheduledThreadPoolExecutor current = timer.get();
+        if (current == null) {
+            final ScheduledThreadPoolExecutor created = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "krazo-render-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+            created.setRemoveOnCancelPolicy(true);
+            if (timer.compareAndSet(null, created)) {
+                current = created;
+            } else {
+                created.shutdown();
+                current = timer.get();
+            }
+        }
+        return current;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        final ScheduledThreadPoolExecutor current = timer.getAndSet(null);
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the bulkheads of all engines which have rendered views so far.
+     *
+     * @return the bulkheads
+     */
+    public Collection<Bulkhead> getBulkheads() {
+        return Collections.unmodifiableCollection(bulkheads.values());
+    }
+
+    private Bulkhead createBulkhead(String engine) {
+        final int limit = PropertyUtils.getIntProperty(config, Properties.RENDER_CONCURRENCY + '.' + engine,
+            PropertyUtils.getIntProperty(config, Properties.RENDER_CONCURRENCY, 0));
+        final int queueSize = PropertyUtils.getIntProperty(config, Properties.RENDER_QUEUE_SIZE, limit);
+        final long queueTimeout = PropertyUtils.getLongProperty(config, Properties.RENDER_QUEUE_TIMEOUT,
+            DEFAULT_QUEUE_TIMEOUT);
+        return new Bulkhead(engine, limit, queueSize, queueTimeout);
+    }
+
+    /*
+     * CDI proxies are named after the class of the bean, see AnnotationUtils
+     */
+    private static String getEngineName(Class<?> clazz) {
+        final Class<?> parent = clazz.getSuperclass();
+        if (parent != null && clazz.getName().contains("$$") && clazz.getName().startsWith(parent.getName())) {
+            return parent.getName();
+        }
+        return clazz.getName();
+    }
+
+    /**
+     * A single render holding a permit of its bulkhead. The permit is released exactly once,
+     * either by the rendering thread or by the timer once the timeout has passed.
+     */
+    static final class Render {
+
+        private static final int RUNNING = 0;
+
+        private static final int TIMING_OUT = 1;
+
+        private static final int TIMED_OUT = 2;
+
+        private static final int RELEASED = 3;
+
+        private final Bulkhead bulkhead;
+
+        private final Runnable onTimeout;
+
+        private final Thread thread = Thread.currentThread();
+
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+        private volatile ScheduledFuture<?> watchdog;
+
+        private Render(Bulkhead bulkhead, Runnable onTimeout) {
+            this.bulkhead = bulkhead;
+            this.onTimeout = onTimeout;
+        }
+
+        private void timeOut() {
+            if (state.compareAndSet(RUNNING, TIMING_OUT)) {
+                try {
+                    bulkhead.release();
+                    onTimeout.run();
+                    thread.interrupt();
+                } finally {
+                    state.set(TIMED_OUT);
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if the timeout has passed before the render was released
+         */
+        boolean isTimedOut() {
+            final int current = state.get();
+            return current == TIMING_OUT || current == TIMED_OUT;
+        }
+
+        /**
+         * Releases the permit, unless the timer already did. Must be called by the rendering
+         * thread, whose interrupt caused by the timeout is cleared.
+         */
+        void release() {
+            final ScheduledFuture<?> current = watchdog;
+            if (current != null) {
+                current.cancel(false);
+            }
+            if (state.compareAndSet(RUNNING, RELEASED)) {
+                bulkhead.release();
+                return;
+            }
+            while (state.get() == TIMING_OUT) {
+                Thread.yield();
+            }
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * The renders of a single view engine.
+     */
+    public final class Bulkhead {
+
+        private final String engine;
+
+        private final int limit;
+
+        private final int queueSize;
+
+        private final long queueTimeout;
+
+        private final Semaphore permits;
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private final AtomicLong rejected = new AtomicLong();
+
+        private Bulkhead(String engine, int limit, int queueSize, long queueTimeout) {
+            this.engine = engine;
+            this.limit = limit;
+            this.queueSize = queueSize;
+            this.queueTimeout = queueTimeout;
+            this.permits = limit > 0 ? new Semaphore(limit, true) : null;
+        }
+
+        private void acquire() {
+            if (permits != null && !permits.tryAcquire()) {
+                if (queued.incrementAndGet() > queueSize) {
+                    queued.decrementAndGet();
+                    throw reject();
+                }
+                try {
+                    if (!permits.tryAcquire(queueTimeout, TimeUnit.MILLISECONDS)) {
+                        throw reject();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServerErrorException(INTERNAL_SERVER_ERROR, e);
+                } finally {
+                    queued.decrementAndGet();
+                }
+            }
+            active.incrementAndGet();
+        }
+
+        /**
+         * Allows the next view to be rendered.
+         */
+        void release() {
+            active.decrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+        }
+
+        private ServiceUnavailableException reject() {
+            rejected.incrementAndGet();
+            return new ServiceUnavailableException(messages.get("RenderLimitExceeded", engine), getRetryAfter());
+        }
+
+        /**
+         * @return the seconds clients are asked to wait before retrying rejected requests
+         */
+        long getRetryAfter() {
+            return Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(queueTimeout + 999));
+        }
+
+        /**
+         * @return the class name of the view engine
+         */
+        public String getEngine() {
+            return engine;
+        }
+
+        /**
+         * @return the maximum number of concurrent renders, 0 if unlimited
+         */
+        public int getLimit() {
+            return Math.max(limit, 0);
+        }
+
+        /**
+         * @return the number of views being rendered
+         */
+        public int getActive() {
+            return active.get();
+        }
+
+        /**
+         * @return the number of requests waiting to render a view
+         */
+        public int getQueued() {
+            return queued.get();
+        }
+
+        /**
+         * @return the number of requests rejected so far
+         */
+        public long getRejected() {
+            return rejected.get();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Declares that the views of a controller method or of all methods of a controller class
+ * have no dynamic content. Such views are not processed by a view engine. Their content is
+ * read once, kept in memory and written to the response as it is.</p>
+ *
+ * <p>Views are expected to be encoded in UTF-8. If a gzip compressed copy with the extension
+ * {@code .gz} exists next to the view, it is sent to clients accepting gzip, provided that
+ * {@link org.eclipse.krazo.Properties#VIEW_COMPRESSION} is enabled.</p>
+ *
+ * @see org.eclipse.krazo.Properties#STATIC_VIEW_EXTENSIONS
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface StaticView {
+}
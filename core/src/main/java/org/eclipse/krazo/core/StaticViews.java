@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.eclipse.krazo.util.AnnotationUtils;
+import org.eclipse.krazo.util.PathUtils;
+import org.eclipse.krazo.util.PropertyUtils;
+
+import jakarta.mvc.engine.ViewEngine;
+import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.EntityTag;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Holds the content of views without dynamic content, see {@link StaticView}. Each view is
+ * read once and kept in memory along with a gzip compressed variant, so serving it takes a
+ * single write. The views are stored as a context attribute.</p>
+ */
+final class StaticViews {
+
+    private static final String ATTRIBUTE = StaticViews.class.getName();
+
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private final ServletContext servletContext;
+
+    private final Map<String, Content> contents = new ConcurrentHashMap<>();
+
+    private StaticViews(ServletContext servletContext) {
+        this.servletContext = servletContext;
+    }
+
+    /**
+     * Returns the static views of the context.
+     *
+     * @param servletContext the servlet context
+     * @return the static views
+     */
+    static StaticViews get(ServletContext servletContext) {
+        final Object views = servletContext.getAttribute(ATTRIBUTE);
+        if (views instanceof StaticViews) {
+            return (StaticViews) views;
+        }
+        final StaticViews created = new StaticViews(servletContext);
+        servletContext.setAttribute(ATTRIBUTE, created);
+        return created;
+    }
+
+    /**
+     * Checks whether a controller method or its class is annotated with {@link StaticView}, or
+     * the view has one of the extensions configured by
+     * {@link org.eclipse.krazo.Properties#STATIC_VIEW_EXTENSIONS}.
+     *
+     * @param config the JAX-RS configuration
+     * @param method the controller method or {@code null}
+     * @param view the view
+     * @return {@code true} if the view is static
+     */
+    static boolean isStatic(Configuration config, Method method, String view) {
+        if (method != null && (AnnotationUtils.hasAnnotation(method, StaticView.class)
+            || AnnotationUtils.hasAnnotation(method.getDeclaringClass(), StaticView.class))) {
+            return true;
+        }
+        final String extensions = PropertyUtils.getProperty(config, Properties.STATIC_VIEW_EXTENSIONS, null);
+        if (extensions != null && view != null) {
+            for (String extension : extensions.split(",")) {
+                extension = extension.trim();
+                if (!extension.isEmpty() && view.endsWith(extension)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves a view against the view folder, like {@link org.eclipse.krazo.engine.ViewEngineBase}.
+     *
+     * @param config the JAX-RS configuration
+     * @param view the view
+     * @return the path of the view
+     */
+    static String resolve(Configuration config, String view) {
+        if (PathUtils.hasStartingSlash(view)) {
+            return view;
+        }
+        final String viewFolder = PropertyUtils.getProperty(config, ViewEngine.VIEW_FOLDER, ViewEngine.DEFAULT_VIEW_FOLDER);
+        return PathUtils.ensureEndingSlash(viewFolder) + view;
+    }
+
+    /**
+     * Returns the content of a static view, reading it on first access.
+     *
+     * @param path the path of the view
+     * @return the content or {@code null} if there is no such resource
+     * @throws IOException if the view can't be read
+     */
+    Content find(String path) throws IOException {
+        final Content content = contents.get(path);
+        if (content != null) {
+            return content;
+        }
+        final byte[] bytes = read(path);
+        if (bytes == null) {
+            return null;
+        }
+        final Content created = new Content(bytes, read(path + GZIP_EXTENSION));
+        final Content previous = contents.putIfAbsent(path, created);
+        return previous != null ? previous : created;
+    }
+
+    private byte[] read(String path) throws IOException {
+        try (InputStream in = servletContext.getResourceAsStream(path)) {
+            if (in == null) {
+                return null;
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * The content of a static view, encoded in UTF-8 and other charsets on demand, and
+     * compressed with gzip.
+     */
+    static final class Content {
+
+        private final Variant utf8;
+
+        private final Map<String, Variant> encoded = new ConcurrentHashMap<>();
+
+        private volatile Variant gzip;
+
+        Content(byte[] utf8, byte[] gzip) {
+            this.utf8 = new Variant(utf8, "");
+            this.gzip = gzip != null ? new Variant(gzip, "-gz") : null;
+        }
+
+        /**
+         * @param charset the charset of the response
+         * @return the view encoded in the charset
+         */
+        Variant get(Charset charset) {
+            if (StandardCharsets.UTF_8.equals(charset)) {
+                return utf8;
+            }
+            return encoded.computeIfAbsent(charset.name(),
+                name -> new Variant(new String(utf8.bytes, StandardCharsets.UTF_8).getBytes(charset), ""));
+        }
+
+        /**
+         * @return the UTF-8 encoded view compressed with gzip
+         */
+        Variant getGzip() {
+            Variant result = gzip;
+            if (result == null) {
+                result = new Variant(compress(utf8.bytes), "-gz");
+                gzip = result;
+            }
+            return result;
+        }
+
+        private static byte[] compress(byte[] bytes) {
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 32);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return compressed.toByteArray();
+        }
+    }
+
+    /**
+     * A representation of a static view along with its ETag.
+     */
+    static final class Variant {
+
+        private final byte[] bytes;
+
+        private final EntityTag etag;
+
+        Variant(byte[] bytes, String suffix) {
+            this.bytes = bytes;
+            final CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length);
+            this.etag = new EntityTag(Integer.toHexString(bytes.length) + '-' + Long.toHexString(crc.getValue()) + suffix, true);
+        }
+
+        byte[] getBytes() {
+            return bytes;
+        }
+
+        EntityTag getETag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Enables streamed rendering for the views of a controller method or of all methods of a
+ * controller class.</p>
+ *
+ * <p>If a {@link #prefix()} is declared, the static resource it points to is sent to the client
+ * and flushed before the controller is invoked, so browsers can start fetching the stylesheets
+ * and scripts referenced in the head of the page while the controller is still working. The
+ * view then only renders the remainder of the page. Relative paths are resolved against the
+ * view folder, like views.</p>
+ *
+ * <p>The response of a streamed view is not buffered by Krazo, so flush directives of the view
+ * engine (e.g. {@code <#flush>} in FreeMarker or {@code out.flush()} in a JSP) send everything
+ * rendered so far to the client.</p>
+ *
+ * <p>As the response is committed before the controller runs, controllers using a prefix must
+ * always render a view. Redirects and error statuses can't be sent anymore.</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface StreamedView {
+
+    /**
+     * The path of the static resource which is flushed before the controller is invoked.
+     * Defaults to no prefix.
+     *
+     * @return the path of the prefix
+     */
+    String prefix() default "";
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import jakarta.ws.rs.core.EntityTag;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Growable buffer for rendered views. Once the view exceeds the maximum size, the buffered
+ * bytes are written to the target stream and all further writes go straight through, so large
+ * views are streamed instead.</p>
+ *
+ * <p>The backing arrays are taken from a small pool shared by all requests and have to be
+ * returned by calling {@link #release()}. Only arrays of the initial size are pooled, grown
+ * arrays are left to the garbage collector, so the pool never holds more than a few hundred
+ * kilobytes. Optionally, a CRC32 checksum of the buffered bytes is
+ * computed while they are written, which makes up the weak ETag of the view.</p>
+ */
+final class ViewBuffer extends OutputStream {
+
+    private static final int INITIAL_SIZE = 8192;
+
+    private static final int POOL_SIZE = 32;
+
+    private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicInteger pooled = new AtomicInteger();
+
+    private final OutputStream target;
+
+    private final int maxSize;
+
+    private final CRC32 crc;
+
+    private byte[] buffer;
+
+    private int count;
+
+    private boolean overflowed;
+
+    /**
+     * @param target the stream receiving the view
+     * @param maxSize the maximum number of bytes buffered
+     * @param checksum whether the checksum for {@link #getETag()} is computed
+     */
+    ViewBuffer(OutputStream target, long maxSize, boolean checksum) {
+        this.target = target;
+        this.maxSize = (int) Math.min(maxSize, Integer.MAX_VALUE - 8);
+        this.crc = checksum ? new CRC32() : null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (overflowed || !ensureCapacity(1)) {
+            target.write(b);
+            return;
+        }
+        buffer[count++] = (byte) b;
+        if (crc != null) {
+            crc.update(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (overflowed || !ensureCapacity(len)) {
+            target.write(b, off, len);
+            return;
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+    }
+
+    /*
+     * Grows the buffer for the given number of bytes, or switches to streaming if the
+     * maximum size would be exceeded.
+     */
+    private boolean ensureCapacity(int len) throws IOException {
+        final long required = (long) count + len;
+        if (required > maxSize) {
+            overflowed = true;
+            if (count > 0) {
+                target.write(buffer, 0, count);
+            }
+            release();
+            return false;
+        }
+        if (buffer == null) {
+            buffer = acquire();
+        }
+        if (required > buffer.length) {
+            final long grown = Math.max(required, (long) buffer.length << 1);
+            buffer = Arrays.copyOf(buffer, (int) Math.min(grown, maxSize));
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the view exceeded the maximum size and has been streamed
+     */
+    boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * @return the number of buffered bytes
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return the weak ETag of the buffered bytes
+     */
+    EntityTag getETag() {
+        return new EntityTag(Integer.toHexString(count) + '-' + Long.toHexString(crc.getValue()), true);
+    }
+
+    /**
+     * Writes the buffered bytes to the target stream.
+     *
+     * @throws IOException if writing fails
+     */
+    void writeTo() throws IOException {
+        if (count > 0) {
+            target.write(buffer, 0, count);
+        }
+    }
+
+    /**
+     * Returns the backing array to the pool and discards the buffered bytes.
+     */
+    void release() {
+        if (buffer != null) {
+            if (buffer.length == INITIAL_SIZE) {
+                if (pooled.incrementAndGet() <= POOL_SIZE) {
+                    pool.offer(buffer);
+                } else {
+                    pooled.decrementAndGet();
+                }
+            }
+            buffer = null;
+        }
+        count = 0;
+    }
+
+    /**
+     * @return the number of arrays currently held by the pool
+     */
+    static int pooled() {
+        return pooled.get();
+    }
+
+    private static byte[] acquire() {
+        final byte[] pooledBuffer = pool.poll();
+        if (pooledBuffer != null) {
+            pooled.decrementAndGet();
+            return pooledBuffer;
+        }
+        return new byte[INITIAL_SIZE];
+    }
+}
@@ -0,0 +1,526 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.eclipse.krazo.jaxrs.JaxRsContext;
+import org.eclipse.krazo.util.AnnotationUtils;
+import org.eclipse.krazo.util.LruCache;
+import org.eclipse.krazo.util.PropertyUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.security.DenyAll;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.mvc.security.CsrfProtected;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Output cache for the views of controllers annotated with {@link CachedView}. Entries are
+ * evicted in least recently used order once the rendered views exceed
+ * {@link Properties#VIEW_CACHE_SIZE} bytes.</p>
+ *
+ * <p>The views are captured by {@link ViewCaptureInterceptor} and served by
+ * {@link ViewCacheFilter}. Applications may inject this bean to drop all entries, e.g. after
+ * the data shown by the cached views has changed.</p>
+ *
+ * <p>Cached views are served without invoking the controller and its interceptors, so they
+ * must be public. Controllers requiring a role ({@link RolesAllowed}, {@link DenyAll}) or
+ * protected by {@link CsrfProtected} are never cached, a warning is logged instead.</p>
+ *
+ * <p>Concurrent misses for the same key are coalesced: only the first request renders the
+ * view, the others wait up to {@link Properties#VIEW_CACHE_WAIT_TIMEOUT} for its result. If
+ * that render fails or takes longer, the waiting requests render the view on their own. A render
+ * which is never captured, e.g. because the controller threw an unmapped exception, is released
+ * by {@link ViewCacheRequestListener} once the request has ended.</p>
+ */
+@ApplicationScoped
+public class ViewCache {
+
+    private static final Logger log = Logger.getLogger(ViewCache.class.getName());
+
+    private static final long DEFAULT_SIZE = 32L * 1024 * 1024;
+
+    private static final long DEFAULT_WAIT_TIMEOUT = 5000L;
+
+    private static final char SEPARATOR = '\0';
+
+    private static final List<Class<? extends Annotation>> SECURITY_ANNOTATIONS =
+        Arrays.asList(RolesAllowed.class, DenyAll.class, CsrfProtected.class);
+
+    // response headers which describe the view itself rather than the user it was rendered for
+    private static final Set<String> CACHED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        CACHED_HEADERS.addAll(Arrays.asList(HttpHeaders.CACHE_CONTROL, HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.EXPIRES, HttpHeaders.LAST_MODIFIED, HttpHeaders.LINK, HttpHeaders.VARY,
+            "Content-Security-Policy", "Referrer-Policy", "Strict-Transport-Security",
+            "X-Content-Type-Options", "X-Frame-Options"));
+    }
+
+    @Inject
+    @JaxRsContext
+    private Configuration config;
+
+    private final ConcurrentMap<String, CompletableFuture<Entry>> renders = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Method, Optional<CachedView>> cachedViews = new ConcurrentHashMap<>();
+
+    private LruCache<String, Entry> entries;
+
+    private long maxSize;
+
+    private boolean offHeap;
+
+    private long waitTimeout;
+
+    @PostConstruct
+    public void init() {
+        maxSize = PropertyUtils.getLongProperty(config, Properties.VIEW_CACHE_SIZE, DEFAULT_SIZE);
+        offHeap = PropertyUtils.getBooleanProperty(config, Properties.VIEW_CACHE_OFF_HEAP, false);
+        waitTimeout = PropertyUtils.getLongProperty(config, Properties.VIEW_CACHE_WAIT_TIMEOUT, DEFAULT_WAIT_TIMEOUT);
+        if (waitTimeout <= 0) {
+            waitTimeout = DEFAULT_WAIT_TIMEOUT;
+        }
+        entries = new LruCache<>(maxSize, Entry::size);
+    }
+
+    /**
+     * Returns the {@link CachedView} annotation of a controller method, declared either on
+     * the method or on its class.
+     *
+     * @param method the controller method
+     * @return the annotation or {@code null} if the view isn't cached
+     */
+    public static CachedView getCachedView(Method method) {
+        final CachedView cachedView = AnnotationUtils.getAnnotation(method, CachedView.class);
+        return cachedView != null
+            ? cachedView
+            : AnnotationUtils.getAnnotation(method.getDeclaringClass(), CachedView.class);
+    }
+
+    /**
+     * Looks up the {@link CachedView} annotation of a controller method, unless the controller
+     * is secured and must therefore not be served from the cache.
+     *
+     * @param method the controller method
+     * @return the annotation or {@code null} if the view isn't cached
+     */
+    CachedView lookup(Method method) {
+        return cachedViews.computeIfAbsent(method, m -> {
+            final CachedView cachedView = getCachedView(m);
+            if (cachedView != null && isSecured(m)) {
+                log.log(Level.WARNING, "Ignoring @CachedView of secured controller {0}, only public views may be cached", m);
+                return Optional.empty();
+            }
+            return Optional.ofNullable(cachedView);
+        }).orElse(null);
+    }
+
+    private static boolean isSecured(Method method) {
+        for (Class<? extends Annotation> annotation : SECURITY_ANNOTATIONS) {
+            if (AnnotationUtils.getAnnotation(method, annotation) != null
+                || AnnotationUtils.getAnnotation(method.getDeclaringClass(), annotation) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the cache key of a request from its URI and the request data the view varies by.
+     *
+     * @param cachedView the annotation of the controller
+     * @param request the request
+     * @param locale the resolved request locale
+     * @param encoding the encoding the view is compressed with or {@code null}
+     * @return the cache key
+     */
+    static String key(CachedView cachedView, HttpServletRequest request, Locale locale, String encoding) {
+        final StringBuilder key = new StringBuilder(request.getRequestURI());
+        if (encoding != null) {
+            key.append(SEPARATOR).append(encoding);
+        }
+        if (cachedView.varyByLocale()) {
+            key.append(SEPARATOR).append(locale != null ? locale.toLanguageTag() : "");
+        }
+        for (String header : cachedView.varyByHeaders()) {
+            key.append(SEPARATOR).append(header).append('=').append(nullToEmpty(request.getHeader(header)));
+        }
+        for (String param : cachedView.varyByParams()) {
+            key.append(SEPARATOR).append(param).append('=');
+            final String[] values = request.getParameterValues(param);
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+        }
+        return key.toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Looks up an entry which is either fresh or may still be served while it is revalidated.
+     *
+     * @param key the cache key
+     * @return the entry or {@code null}
+     */
+    Entry get(String key) {
+        final Entry entry = entries.get(key);
+        if (entry != null && entry.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a rendered view.
+     *
+     * @param key the cache key
+     * @param content the rendered view
+     * @param contentType the content type of the rendered view
+     * @param contentEncoding the encoding the view is compressed with or {@code null}
+     * @param headers the other response headers, see {@link #cacheableHeaders(MultivaluedMap)}
+     * @param cachedView the annotation of the controller
+     * @return the new entry
+     */
+    Entry put(String key, byte[] content, String contentType, String contentEncoding,
+              Map<String, List<Object>> headers, CachedView cachedView) {
+        final ByteBuffer buffer;
+        if (offHeap) {
+            buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content);
+            buffer.flip();
+        } else {
+            buffer = ByteBuffer.wrap(content);
+        }
+        final long now = System.nanoTime();
+        final long expires = now + cachedView.unit().toNanos(cachedView.ttl());
+        final Entry entry = new Entry(buffer, contentType, contentEncoding, headers, expires,
+            expires + cachedView.unit().toNanos(cachedView.staleWhileRevalidate()));
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Checks whether a response may be stored in the cache at all. Responses which are marked
+     * as private or not storable, or which set a cookie, are specific to a single user.
+     *
+     * @param headers the headers of the response rendering the view
+     * @return {@code true} if the response may be cached
+     */
+    static boolean isCacheable(MultivaluedMap<String, ?> headers) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        final List<?> cacheControls = headers.get(HttpHeaders.CACHE_CONTROL);
+        if (cacheControls != null) {
+            for (Object cacheControl : cacheControls) {
+                if (cacheControl instanceof CacheControl) {
+                    if (((CacheControl) cacheControl).isPrivate() || ((CacheControl) cacheControl).isNoStore()) {
+                        return false;
+                    }
+                } else {
+                    final String value = String.valueOf(cacheControl).toLowerCase(Locale.ENGLISH);
+                    if (value.contains("private") || value.contains("no-store")) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the response headers which are served along with a cached view. Only headers
+     * describing the view itself are cached, others like the CSRF token header or cookies may
+     * be specific to the user the view was rendered for.
+     *
+     * @param headers the headers of the response rendering the view
+     * @return the headers to cache
+     */
+    static Map<String, List<Object>> cacheableHeaders(MultivaluedMap<String, ?> headers) {
+        final Map<String, List<Object>> cacheable = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, ? extends List<?>> header : headers.entrySet()) {
+            if (CACHED_HEADERS.contains(header.getKey())) {
+                cacheable.put(header.getKey(), new ArrayList<>(header.getValue()));
+            }
+        }
+        return cacheable;
+    }
+
+    /**
+     * Registers a render of the view for a key, unless another request is already rendering it.
+     *
+     * @param key the cache key
+     * @param render completed with the entry once the view has been rendered
+     * @return the render of another request or {@code null} if the caller renders the view
+     */
+    CompletableFuture<Entry> startRender(String key, CompletableFuture<Entry> render) {
+        return renders.putIfAbsent(key, render);
+    }
+
+    /**
+     * Waits for the render of another request.
+     *
+     * @param key the cache key
+     * @param render the render to wait for
+     * @return the rendered entry or {@code null} if the render failed or didn't complete in time
+     */
+    Entry awaitRender(String key, CompletableFuture<Entry> render) {
+        try {
+            return render.get(waitTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // let the next miss start a new render instead of waiting for this one
+            renders.remove(key, render);
+            log.log(Level.FINE, "Render of cached view {0} didn''t complete in time", key);
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Stores a captured view and hands it to the requests waiting for it.
+     *
+     * @param capture the capture of the request
+     * @param content the rendered view
+     * @param contentType the content type of the rendered view
+     * @param contentEncoding the encoding the view is compressed with or {@code null}
+     * @param headers the other response headers to serve along with the view
+     */
+    void complete(Capture capture, byte[] content, String contentType, String contentEncoding,
+                  Map<String, List<Object>> headers) {
+        if (!capture.finish()) {
+            return;
+        }
+        finishRender(capture, put(capture.getKey(), content, contentType, contentEncoding, headers,
+            capture.getCachedView()));
+    }
+
+    /**
+     * Gives up capturing a view, the waiting requests render it on their own. Does nothing if
+     * the capture has already been completed or aborted.
+     *
+     * @param capture the capture of the request
+     */
+    void abort(Capture capture) {
+        if (!capture.finish()) {
+            return;
+        }
+        if (capture.stale != null) {
+            capture.stale.revalidationFailed();
+        }
+        finishRender(capture, null);
+    }
+
+    private void finishRender(Capture capture, Entry entry) {
+        if (capture.render != null) {
+            renders.remove(capture.getKey(), capture.render);
+            capture.render.complete(entry);
+        }
+    }
+
+    /**
+     * @return the maximum number of bytes kept by the cache
+     */
+    long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Removes all cached views.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * A rendered view along with its response headers and expiration times.
+     */
+    static final class Entry {
+
+        private final ByteBuffer content;
+
+        private final String contentType;
+
+        private final String contentEncoding;
+
+        private final Map<String, List<Object>> headers;
+
+        private final long expires;
+
+        private final long staleUntil;
+
+        private final AtomicBoolean revalidating = new AtomicBoolean();
+
+        Entry(ByteBuffer content, String contentType, String contentEncoding, Map<String, List<Object>> headers,
+              long expires, long staleUntil) {
+            this.content = content;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+            this.headers = headers;
+            this.expires = expires;
+            this.staleUntil = staleUntil;
+        }
+
+        boolean isFresh(long now) {
+            return now - expires < 0;
+        }
+
+        boolean isExpired(long now) {
+            return now - staleUntil >= 0;
+        }
+
+        /**
+         * @return {@code true} if the caller is the only request rendering the view again
+         */
+        boolean tryRevalidate() {
+            return revalidating.compareAndSet(false, true);
+        }
+
+        /**
+         * Lets the next request render the view again after the revalidation has failed.
+         */
+        void revalidationFailed() {
+            revalidating.set(false);
+        }
+
+        long size() {
+            return content.capacity();
+        }
+
+        Response toResponse() {
+            final Response.ResponseBuilder response;
+            if (content.hasArray()) {
+                response = Response.ok(content.array(), contentType);
+            } else {
+                response = Response.ok(streamContent(), contentType);
+            }
+            for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+                for (Object value : header.getValue()) {
+                    response.header(header.getKey(), value);
+                }
+            }
+            if (contentEncoding != null) {
+                response.header(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+                if (!headers.containsKey(HttpHeaders.VARY)) {
+                    response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+            }
+            return response.build();
+        }
+
+        private StreamingOutput streamContent() {
+            return out -> {
+                final ByteBuffer buffer = content.duplicate();
+                final byte[] chunk = new byte[Math.min(buffer.remaining(), 8192)];
+                while (buffer.hasRemaining()) {
+                    final int length = Math.min(chunk.length, buffer.remaining());
+                    buffer.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            };
+        }
+    }
+
+    /**
+     * The state of a request whose view is captured for the cache.
+     */
+    static final class Capture {
+
+        private final String key;
+
+        private final CachedView cachedView;
+
+        private final Entry stale;
+
+        private final CompletableFuture<Entry> render;
+
+        private boolean accepted;
+
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        Capture(String key, CachedView cachedView, Entry stale, CompletableFuture<Entry> render) {
+            this.key = key;
+            this.cachedView = cachedView;
+            this.stale = stale;
+            this.render = render;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        CachedView getCachedView() {
+            return cachedView;
+        }
+
+        boolean isAccepted() {
+            return accepted;
+        }
+
+        /**
+         * @return {@code true} if the caller is the first to complete or abort the capture
+         */
+        boolean finish() {
+            return finished.compareAndSet(false, true);
+        }
+
+        /**
+         * Marks the response as cacheable, i.e. successful and rendering a view.
+         */
+        void accept() {
+            this.accepted = true;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.mvc.Controller;
+import jakarta.mvc.MvcContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.Context;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Answers GET requests for controllers annotated with {@link CachedView} from the
+ * {@link ViewCache} without invoking the controller. On a cache miss, the request is marked
+ * so that {@link ViewCaptureInterceptor} stores the rendered view. Requests missing the cache
+ * while the same view is being rendered wait for that render instead.
+ */
+@Controller
+@Priority(Priorities.USER + 1000) // after authentication and user defined filters
+public class ViewCacheFilter implements ContainerRequestFilter {
+
+    static final String CAPTURE_PROPERTY = ViewCacheFilter.class.getName() + ".CAPTURE";
+
+    static final String CAPTURE_ATTRIBUTE = ViewCacheFilter.class.getName() + ".PENDING_CAPTURE";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Context
+    private HttpServletRequest request;
+
+    @Context
+    private Configuration config;
+
+    @Inject
+    private MvcContext mvc;
+
+    @Inject
+    private ViewCache viewCache;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+
+        final Method method = resourceInfo.getResourceMethod();
+        if (method == null || !HttpMethod.GET.equals(requestContext.getMethod())) {
+            return;
+        }
+        final CachedView cachedView = viewCache.lookup(method);
+        if (cachedView == null) {
+            return;
+        }
+
+        // a prefix is sent before the controller is invoked and isn't part of the captured view
+        final StreamedView streamedView = ViewPrefixWriter.getStreamedView(method);
+        if (streamedView != null && !streamedView.prefix().isEmpty()) {
+            return;
+        }
+
+        final String key = ViewCache.key(cachedView, request, mvc.getLocale(),
+                                         CompressingOutputStream.negotiate(config, request));
+        final ViewCache.Entry entry = viewCache.get(key);
+        if (entry != null && (entry.isFresh(System.nanoTime()) || !entry.tryRevalidate())) {
+            requestContext.abortWith(entry.toResponse());
+            return;
+        }
+
+        // coalesce concurrent misses, so that only a single request renders the view
+        CompletableFuture<ViewCache.Entry> render = null;
+        if (entry == null) {
+            render = new CompletableFuture<>();
+            final CompletableFuture<ViewCache.Entry> current = viewCache.startRender(key, render);
+            if (current != null) {
+                render = null;
+                final ViewCache.Entry rendered = viewCache.awaitRender(key, current);
+                if (rendered != null) {
+                    requestContext.abortWith(rendered.toResponse());
+                    return;
+                }
+            }
+        }
+
+        final ViewCache.Capture capture = new ViewCache.Capture(key, cachedView, entry, render);
+        requestContext.setProperty(CAPTURE_PROPERTY, capture);
+
+        // released by ViewCacheRequestListener if the response filters or the view never run
+        request.setAttribute(CAPTURE_ATTRIBUTE, capture);
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import jakarta.inject.Inject;
+import jakarta.servlet.ServletRequestEvent;
+import jakarta.servlet.ServletRequestListener;
+import jakarta.servlet.annotation.WebListener;
+
+import static org.eclipse.krazo.core.ViewCacheFilter.CAPTURE_ATTRIBUTE;
+
+/**
+ * Aborts the capture of a cached view once the request has ended, unless the view has been
+ * stored by {@link ViewCaptureInterceptor}. This happens if the controller throws an exception
+ * which isn't mapped to a response, or if a later filter aborts the request. Requests waiting
+ * for the render of the view are released right away instead of running into their timeout.
+ */
+@WebListener
+public class ViewCacheRequestListener implements ServletRequestListener {
+
+    @Inject
+    private ViewCache viewCache;
+
+    @Override
+    public void requestDestroyed(ServletRequestEvent sre) {
+        final Object capture = sre.getServletRequest().getAttribute(CAPTURE_ATTRIBUTE);
+        if (capture instanceof ViewCache.Capture) {
+            viewCache.abort((ViewCache.Capture) capture);
+        }
+    }
+
+}
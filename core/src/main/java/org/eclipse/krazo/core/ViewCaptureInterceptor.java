@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.engine.Viewable;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.mvc.Controller;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.eclipse.krazo.core.ViewCacheFilter.CAPTURE_PROPERTY;
+
+/**
+ * Captures the bytes written by {@link ViewableWriter} for requests marked by
+ * {@link ViewCacheFilter} and stores them in the {@link ViewCache} along with the headers of
+ * the JAX-RS response which describe the view, see {@link ViewCache#cacheableHeaders}. Responses
+ * which are private, not storable, set a cookie or created a session are not stored. Only successful responses
+ * rendering a view are stored, and only if writing the view has completed without errors.
+ */
+@Controller
+@Priority(Priorities.HEADER_DECORATOR) // after ViewResponseFilter has created the Viewable
+public class ViewCaptureInterceptor implements ContainerResponseFilter, WriterInterceptor {
+
+    @Inject
+    private ViewCache viewCache;
+
+    @Context
+    private HttpServletRequest request;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+
+        final ViewCache.Capture capture = (ViewCache.Capture) requestContext.getProperty(CAPTURE_PROPERTY);
+        if (capture == null || capture.isAccepted()) {
+            return;
+        }
+
+        if (responseContext.getStatus() == Response.Status.OK.getStatusCode()
+            && responseContext.getEntity() instanceof Viewable) {
+            capture.accept();
+        } else {
+            requestContext.removeProperty(CAPTURE_PROPERTY);
+            viewCache.abort(capture);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+
+        final ViewCache.Capture capture = (ViewCache.Capture) context.getProperty(CAPTURE_PROPERTY);
+        if (capture == null || !capture.isAccepted()) {
+            context.proceed();
+            return;
+        }
+        context.removeProperty(CAPTURE_PROPERTY);
+
+        final CapturingOutputStream out = new CapturingOutputStream(context.getOutputStream(), viewCache.getMaxSize());
+        context.setOutputStream(out);
+        boolean written = false;
+        try {
+            context.proceed();
+            written = true;
+        } finally {
+            final byte[] content = out.getCaptured();
+            if (written && content != null && ViewCache.isCacheable(context.getHeaders()) && !isNewSession()) {
+                final Object contentType = context.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+                final Object contentEncoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+                viewCache.complete(capture, content,
+                    contentType != null ? contentType.toString() : String.valueOf(context.getMediaType()),
+                    contentEncoding != null ? contentEncoding.toString() : null,
+                    ViewCache.cacheableHeaders(context.getHeaders()));
+            } else {
+                viewCache.abort(capture);
+            }
+        }
+    }
+
+    /*
+     * A session created while rendering the view, e.g. for a CSRF token, belongs to a single user.
+     */
+    private boolean isNewSession() {
+        final HttpSession session = request.getSession(false);
+        return session != null && session.isNew();
+    }
+
+    /**
+     * Copies everything written to the response into a buffer, unless the content exceeds
+     * the size of the cache.
+     */
+    private static class CapturingOutputStream extends FilterOutputStream {
+
+        private final long maxSize;
+
+        private ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        CapturingOutputStream(OutputStream out, long maxSize) {
+            super(out);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(1);
+            if (captured != null) {
+                captured.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(len);
+            if (captured != null) {
+                captured.write(b, off, len);
+            }
+        }
+
+        private void capture(int len) {
+            if (captured != null && captured.size() + (long) len > maxSize) {
+                captured = null;
+            }
+        }
+
+        byte[] getCaptured() {
+            return captured != null ? captured.toByteArray() : null;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.jaxrs.JaxRsContext;
+import org.eclipse.krazo.util.AnnotationUtils;
+import org.eclipse.krazo.util.PathUtils;
+import org.eclipse.krazo.util.PropertyUtils;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.mvc.engine.ViewEngine;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.eclipse.krazo.util.HttpUtil.unwrapOriginalRequest;
+import static org.eclipse.krazo.util.HttpUtil.unwrapOriginalResponse;
+
+/**
+ * Writes the prefix declared by {@link StreamedView} to the client before the controller is
+ * invoked. Prefixes are static resources, so their content is read once and kept in memory.
+ * They are sent with the media type of the controller's {@link Produces} annotation, and
+ * converted from UTF-8 to its charset.
+ */
+@ApplicationScoped
+public class ViewPrefixWriter {
+
+    private final Map<String, byte[]> prefixes = new ConcurrentHashMap<>();
+
+    @Inject
+    @JaxRsContext
+    private HttpServletRequest request;
+
+    @Inject
+    @JaxRsContext
+    private HttpServletResponse response;
+
+    @Inject
+    @JaxRsContext
+    private Configuration config;
+
+    @Inject
+    private Messages messages;
+
+    /**
+     * Returns the {@link StreamedView} annotation of a controller method, declared either on
+     * the method or on its class.
+     *
+     * @param method the controller method
+     * @return the annotation or {@code null} if the view isn't streamed
+     */
+    public static StreamedView getStreamedView(Method method) {
+        final StreamedView streamedView = AnnotationUtils.getAnnotation(method, StreamedView.class);
+        return streamedView != null
+            ? streamedView
+            : AnnotationUtils.getAnnotation(method.getDeclaringClass(), StreamedView.class);
+    }
+
+    /**
+     * Sends and flushes the prefix of the view of a controller method, if it declares one.
+     * Only GET requests are answered with a prefix.
+     *
+     * @param method the controller method
+     * @throws IOException if the prefix can't be written
+     */
+    public void writePrefix(Method method) throws IOException {
+        final StreamedView streamedView = getStreamedView(method);
+        if (streamedView == null || streamedView.prefix().isEmpty()
+            || !HttpMethod.GET.equals(request.getMethod())) {
+            return;
+        }
+
+        final HttpServletResponse original = unwrapOriginalResponse(response);
+        if (original.isCommitted()) {
+            return;
+        }
+
+        final MediaType mediaType = getMediaType(method);
+        final Charset charset = Charset.forName(mediaType.getParameters().get(MediaType.CHARSET_PARAMETER));
+        final byte[] prefix = getPrefix(resolvePrefix(streamedView.prefix()), charset);
+        original.setContentType(mediaType.toString());
+        final ServletOutputStream out = original.getOutputStream();
+        out.write(prefix);
+        out.flush();
+    }
+
+    /*
+     * The prefix commits the headers, so its content type has to match the one the view is
+     * rendered with by ViewableWriter later on. It can only be determined up front if the
+     * controller produces a single media type.
+     */
+    private MediaType getMediaType(Method method) {
+        Produces produces = AnnotationUtils.getAnnotation(method, Produces.class);
+        if (produces == null) {
+            produces = AnnotationUtils.getAnnotation(method.getDeclaringClass(), Produces.class);
+        }
+        MediaType mediaType = MediaType.TEXT_HTML_TYPE;
+        if (produces != null) {
+            final List<String> types = new ArrayList<>();
+            for (String value : produces.value()) {
+                for (String type : value.split(",")) {
+                    types.add(type.trim());
+                }
+            }
+            if (types.size() != 1) {
+                throw new IllegalStateException(messages.get("ViewPrefixAmbiguousType", method));
+            }
+            mediaType = MediaType.valueOf(types.get(0));
+            if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+                throw new IllegalStateException(messages.get("ViewPrefixAmbiguousType", method));
+            }
+        }
+        return mediaType.getParameters().get(MediaType.CHARSET_PARAMETER) == null
+            ? mediaType.withCharset(StandardCharsets.UTF_8.name())
+            : mediaType;
+    }
+
+    private String resolvePrefix(String prefix) {
+        if (PathUtils.hasStartingSlash(prefix)) {
+            return prefix;
+        }
+        final String viewFolder = PropertyUtils.getProperty(config, ViewEngine.VIEW_FOLDER, ViewEngine.DEFAULT_VIEW_FOLDER);
+        return PathUtils.ensureEndingSlash(viewFolder) + prefix;
+    }
+
+    /*
+     * Prefixes are UTF-8 encoded resources, which are converted to the charset of the view.
+     */
+    private byte[] getPrefix(String path, Charset charset) throws IOException {
+        try {
+            final byte[] prefix = prefixes.computeIfAbsent(path, this::readPrefix);
+            if (StandardCharsets.UTF_8.equals(charset)) {
+                return prefix;
+            }
+            return prefixes.computeIfAbsent(charset.name() + ':' + path,
+                key -> new String(prefix, StandardCharsets.UTF_8).getBytes(charset));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private byte[] readPrefix(String path) {
+        final HttpServletRequest original = unwrapOriginalRequest(request);
+        try (InputStream in = original.getServletContext().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException(messages.get("ViewPrefixNotFound", path));
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
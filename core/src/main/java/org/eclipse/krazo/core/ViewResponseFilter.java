@@ -33,6 +33,7 @@ import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -78,6 +79,10 @@ import org.eclipse.krazo.lifecycle.RequestLifecycle;
  * {@code text/html}. If the method does not return void (has an entity), the computation
  * of the Content-Type is done by JAX-RS and is available via {@code responseContext}.</p>
  *
+ * <p>Controllers returning a {@link CompletionStage} or resuming a suspended
+ * {@link jakarta.ws.rs.container.AsyncResponse} are handled the same way once the result is
+ * available. A {@code null} result is treated like a void method.</p>
+ *
  * <p>Given that this filter is annotated with {@link Controller}, it
  * will be called after every controller method returns. Priority is set to
  * {@link jakarta.ws.rs.Priorities#ENTITY_CODER} which means it will be executed
@@ -160,7 +165,7 @@ public class ViewResponseFilter implements ContainerResponseFilter {
                     responseContext.setStatusInfo(Response.Status.OK);
                 }
 
-            } else if (returnType == Void.TYPE) {
+            } else if (returnType == Void.TYPE || CompletionStage.class.isAssignableFrom(returnType)) {
                 throw new ServerErrorException(messages.get("VoidControllerNoView", method), INTERNAL_SERVER_ERROR);
             }
         } else {
@@ -18,10 +18,12 @@
  */
 package org.eclipse.krazo.core;
 
+import org.eclipse.krazo.Properties;
 import org.eclipse.krazo.engine.ViewEngineContextImpl;
 import org.eclipse.krazo.engine.ViewEngineFinder;
 import org.eclipse.krazo.engine.Viewable;
 import org.eclipse.krazo.lifecycle.EventDispatcher;
+import org.eclipse.krazo.util.PropertyUtils;
 
 import jakarta.enterprise.event.Event;
 import jakarta.enterprise.inject.Instance;
@@ -36,8 +38,10 @@ import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.ServerErrorException;
+import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.container.ResourceInfo;
 import jakarta.ws.rs.core.*;
@@ -48,8 +52,13 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import static jakarta.ws.rs.core.Response.Status.GATEWAY_TIMEOUT;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static org.eclipse.krazo.util.HttpUtil.unwrapOriginalRequest;
 import static org.eclipse.krazo.util.HttpUtil.unwrapOriginalResponse;
@@ -66,11 +75,37 @@ import static org.eclipse.krazo.util.HttpUtil.unwrapOriginalResponse;
  * <p>The charset for the response is obtained from the media type, and defaults to
  * UTF-8.</p>
  *
+ * <p>Views of controllers annotated with {@link StreamedView} are streamed, i.e. flushes
+ * issued by the view engine are passed on to the client.</p>
+ *
+ * <p>If {@link Properties#VIEW_BUFFER} is enabled, views are rendered into a buffer and sent with
+ * a {@code Content-Length}, and an engine failing half-way can be answered with a complete error
+ * view. Views larger than {@link Properties#VIEW_BUFFER_MAX_SIZE} are streamed.</p>
+ *
+ * <p>If {@link Properties#VIEW_ETAG} is enabled, views rendered for GET and HEAD requests are
+ * buffered and sent with a weak ETag. Clients which already have the view get a
+ * {@code 304 Not Modified} response without a body.</p>
+ *
+ * <p>If {@link Properties#VIEW_COMPRESSION} is enabled, views are compressed with gzip or
+ * deflate, depending on the {@code Accept-Encoding} header of the request. Views following the
+ * prefix of a {@link StreamedView} are sent uncompressed, like the prefix itself.</p>
+ *
+ * <p>Views without dynamic content, see {@link StaticView}, bypass the view engines and are
+ * written from memory.</p>
+ *
+ * <p>The number of views rendered concurrently by each engine may be limited, see
+ * {@link RenderLimiter}. Views which take longer than {@link Properties#RENDER_TIMEOUT} are
+ * aborted on their next write.</p>
+ *
  * @author Santiago Pericas-Geertsen
  */
 @Produces(MediaType.WILDCARD)
 public class ViewableWriter implements MessageBodyWriter<Viewable> {
 
+    private static final long DEFAULT_MODEL_TIMEOUT = 30000L;
+
+    private static final long DEFAULT_VIEW_BUFFER_MAX_SIZE = 1024L * 1024;
+
     @Inject
     private Instance<Models> modelsInstance;
 
@@ -104,6 +139,9 @@ public class ViewableWriter implements MessageBodyWriter<Viewable> {
     @Inject
     private EventDispatcher eventDispatcher;
 
+    @Inject
+    private RenderLimiter renderLimiter;
+
     @Override
     public boolean isWriteable(Class<?> aClass, Type type, Annotation[] annotations, MediaType mediaType) {
         return aClass == Viewable.class;
@@ -123,6 +161,12 @@ public class ViewableWriter implements MessageBodyWriter<Viewable> {
                         MultivaluedMap<String, Object> headers, OutputStream out)
         throws IOException, WebApplicationException {
 
+        // Views without dynamic content are served from memory
+        if (StaticViews.isStatic(config, resourceInfo != null ? resourceInfo.getResourceMethod() : null, viewable.getView())) {
+            writeStatic(viewable, resolvedMediaType, headers, out);
+            return;
+        }
+
         // Find engine for this Viewable
         final ViewEngine engine = engineFinder.find(viewable);
         if (engine == null) {
@@ -136,8 +180,58 @@ public class ViewableWriter implements MessageBodyWriter<Viewable> {
         HttpServletRequest request = unwrapOriginalRequest(injectedRequest);
         HttpServletResponse response = unwrapOriginalResponse(injectedResponse);
 
+        // Views may be buffered, streamed views pass flushes of the engine on to the client
+        final boolean streamed = isStreamed();
+        final boolean etag = !streamed && isETagEnabled(request);
+        final ViewBuffer buffer = etag || (!streamed && PropertyUtils.getBooleanProperty(config, Properties.VIEW_BUFFER, false))
+            ? new ViewBuffer(out, PropertyUtils.getLongProperty(config, Properties.VIEW_BUFFER_MAX_SIZE, DEFAULT_VIEW_BUFFER_MAX_SIZE), etag)
+            : null;
+
+        // Compress the view before it is buffered or sent
+        final String encoding = negotiateEncoding(request, response);
+        final OutputStream target = buffer != null ? buffer : out;
+        final CompressingOutputStream compressor = encoding != null
+            ? new CompressingOutputStream(target, headers, encoding, CompressingOutputStream.getLevel(config),
+                                          CompressingOutputStream.getMinSize(config))
+            : null;
+        if (compressor != null) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        // Minify the view before it is compressed
+        final MinifyingOutputStream minifier = MinifyingOutputStream.isEnabled(config, mediaType)
+            ? new MinifyingOutputStream(compressor != null ? compressor : target)
+            : null;
+
+        try {
+            render(viewable, engine, mediaType, headers, request, response,
+                   minifier != null ? minifier : compressor != null ? compressor : target, streamed, buffer);
+            if (minifier != null) {
+                minifier.finish();
+            }
+            if (compressor != null) {
+                compressor.finish();
+            }
+            if (buffer != null) {
+                writeBuffered(buffer, request, headers, etag);
+            }
+        } finally {
+            if (compressor != null) {
+                compressor.release();
+            }
+            if (buffer != null) {
+                buffer.release();
+            }
+        }
+    }
+
+    private void render(Viewable viewable, ViewEngine engine, MediaType mediaType, MultivaluedMap<String, Object> headers,
+                        HttpServletRequest request, HttpServletResponse response, OutputStream out, boolean streamed,
+                        ViewBuffer buffer) throws IOException {
+
         // Create wrapper for response
-        final ServletOutputStream responseStream = new DelegatingServletOutputStream(out);
+        final long renderTimeout = PropertyUtils.getLongProperty(config, Properties.RENDER_TIMEOUT, 0L);
+        final DelegatingServletOutputStream responseStream = new DelegatingServletOutputStream(out, streamed);
         final HttpServletResponse responseWrapper = new MvcHttpServletResponse(response, responseStream, mediaType, headers);
 
         // Pass request to view engine
@@ -151,22 +245,174 @@ public class ViewableWriter implements MessageBodyWriter<Viewable> {
             // Bind EL 'mvc' object in models
             models.put("mvc", mvc);
 
-            // Execute the view engine
-            eventDispatcher.fireBeforeProcessViewEvent(engine, viewable);
+            // Wait for models which are still being computed
+            if (models instanceof ModelsImpl && ((ModelsImpl) models).hasPendingModels()) {
+                awaitPendingModels((ModelsImpl) models);
+            }
+
+            // Execute the view engine, unless it is busy rendering too many other views
+            final RenderLimiter.Render render = renderLimiter.acquire(engine, renderTimeout, responseStream::timeOut);
             try {
+                eventDispatcher.fireBeforeProcessViewEvent(engine, viewable);
+                try {
 
-                // Process view using selected engine
-                engine.processView(new ViewEngineContextImpl(viewable.getView(), models, request, responseWrapper,
-                                                             headers, responseStream, mediaType, uriInfo, resourceInfo, config, mvc.getLocale()));
+                    // Process view using selected engine
+                    engine.processView(new ViewEngineContextImpl(viewable.getView(), models, request, responseWrapper,
+                                                                 headers, responseStream, mediaType, uriInfo, resourceInfo, config, mvc.getLocale()));
 
+                } finally {
+                    eventDispatcher.fireAfterProcessViewEvent(engine, viewable);
+                }
             } finally {
-                eventDispatcher.fireAfterProcessViewEvent(engine, viewable);
+                render.release();
+            }
+
+            // the engine may have spent its time without writing anything afterwards
+            if (responseStream.isTimedOut()) {
+                throw renderTimeout(renderTimeout, null);
             }
 
         } catch (ViewEngineException e) {
+            if (responseStream.isTimedOut()) {
+                throw renderTimeout(renderTimeout, e);
+            }
+            // nothing has been sent yet, so the client can get a complete error view instead
+            final String errorView = PropertyUtils.getProperty(config, Properties.ERROR_VIEW, null);
+            if (buffer != null && !buffer.isOverflowed() && errorView != null && !errorView.equals(viewable.getView())) {
+                throw new WebApplicationException(e, Response.serverError().entity(new Viewable(errorView)).type(mediaType).build());
+            }
             throw new ServerErrorException(INTERNAL_SERVER_ERROR, e);
+        } catch (RuntimeException e) {
+            // engines may wrap the exception thrown by the stream in their own exceptions
+            if (responseStream.isTimedOut() && !(e instanceof ServiceUnavailableException)) {
+                throw renderTimeout(renderTimeout, e);
+            }
+            throw e;
         } finally {
-            responseWrapper.getWriter().flush();
+            if (!responseStream.isTimedOut()) {
+                responseWrapper.getWriter().flush();
+            }
+        }
+    }
+
+    private ServiceUnavailableException renderTimeout(long timeout, Throwable cause) {
+        return new ServiceUnavailableException(messages.get("RenderTimeout", String.valueOf(timeout)), (Long) null, cause);
+    }
+
+    /*
+     * Sends a static view with a single write, using its gzip variant if compression is enabled.
+     */
+    private void writeStatic(Viewable viewable, MediaType resolvedMediaType, MultivaluedMap<String, Object> headers,
+                             OutputStream out) throws IOException {
+
+        final MediaType mediaType = buildMediaTypeWithCharset(resolvedMediaType);
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, mediaType);
+
+        final HttpServletRequest request = unwrapOriginalRequest(injectedRequest);
+        final HttpServletResponse response = unwrapOriginalResponse(injectedResponse);
+        final String path = StaticViews.resolve(config, viewable.getView());
+        final StaticViews.Content content = StaticViews.get(request.getServletContext()).find(path);
+        if (content == null) {
+            throw new ServerErrorException(messages.get("StaticViewNotFound", path), INTERNAL_SERVER_ERROR);
+        }
+
+        final Charset charset = Charset.forName(mediaType.getParameters().get(MediaType.CHARSET_PARAMETER));
+        StaticViews.Variant variant = content.get(charset);
+        final String encoding = negotiateEncoding(request, response);
+        if (encoding != null) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (CompressingOutputStream.GZIP.equals(encoding) && StandardCharsets.UTF_8.equals(charset)
+                && variant.getBytes().length >= CompressingOutputStream.getMinSize(config)) {
+                variant = content.getGzip();
+                headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+            }
+        }
+
+        if (isETagEnabled(request)) {
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), variant.getETag())) {
+                throw new WebApplicationException(Response.notModified(variant.getETag()).build());
+            }
+            headers.putSingle(HttpHeaders.ETAG, variant.getETag());
+        }
+        headers.putSingle(HttpHeaders.CONTENT_LENGTH, variant.getBytes().length);
+        out.write(variant.getBytes());
+    }
+
+    private boolean isETagEnabled(HttpServletRequest request) {
+        return PropertyUtils.getBooleanProperty(config, Properties.VIEW_ETAG, false)
+            && (HttpMethod.GET.equals(request.getMethod()) || HttpMethod.HEAD.equals(request.getMethod()));
+    }
+
+    /*
+     * Sends the buffered view with its length and ETag, or discards it if the client already has it.
+     * Views exceeding the buffer have already been streamed.
+     */
+    private static void writeBuffered(ViewBuffer buffer, HttpServletRequest request,
+                                      MultivaluedMap<String, Object> headers, boolean etag) throws IOException {
+        if (buffer.isOverflowed()) {
+            return;
+        }
+        if (etag) {
+            final EntityTag entityTag = buffer.getETag();
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), entityTag)) {
+                throw new WebApplicationException(Response.notModified(entityTag).build());
+            }
+            headers.putSingle(HttpHeaders.ETAG, entityTag);
+        }
+        headers.putSingle(HttpHeaders.CONTENT_LENGTH, buffer.size());
+        buffer.writeTo();
+    }
+
+    /*
+     * Weak comparison of the entity tags listed in an If-None-Match header, see RFC 7232.
+     */
+    static boolean matches(String ifNoneMatch, EntityTag etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        final String opaqueTag = '"' + etag.getValue() + '"';
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isStreamed() {
+        return resourceInfo != null && resourceInfo.getResourceMethod() != null
+            && ViewPrefixWriter.getStreamedView(resourceInfo.getResourceMethod()) != null;
+    }
+
+    /*
+     * The prefix of a streamed view has already been sent uncompressed along with the headers,
+     * so the rest of the view can't be compressed either.
+     */
+    private String negotiateEncoding(HttpServletRequest request, HttpServletResponse response) {
+        final String encoding = CompressingOutputStream.negotiate(config, request);
+        return encoding != null && !response.isCommitted() && !hasPrefix() ? encoding : null;
+    }
+
+    private boolean hasPrefix() {
+        if (resourceInfo == null || resourceInfo.getResourceMethod() == null) {
+            return false;
+        }
+        final StreamedView streamedView = ViewPrefixWriter.getStreamedView(resourceInfo.getResourceMethod());
+        return streamedView != null && !streamedView.prefix().isEmpty();
+    }
+
+    private void awaitPendingModels(ModelsImpl models) {
+        final long timeout = PropertyUtils.getLongProperty(config, Properties.MODEL_TIMEOUT, DEFAULT_MODEL_TIMEOUT);
+        try {
+            models.awaitPendingModels(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServerErrorException(messages.get("ModelTimeout", String.valueOf(timeout)), GATEWAY_TIMEOUT, e);
+        } catch (ExecutionException e) {
+            throw new ServerErrorException(INTERNAL_SERVER_ERROR, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerErrorException(INTERNAL_SERVER_ERROR, e);
         }
     }
 
@@ -181,21 +427,59 @@ public class ViewableWriter implements MessageBodyWriter<Viewable> {
 
     /**
      * Implementation of {@link ServletOutputStream} which delegate all write operations
-     * to an underlying {@link OutputStream} provided by JAX-RS.
+     * to an underlying {@link OutputStream} provided by JAX-RS. Flushes are only delegated
+     * for streamed views, so that other responses stay uncommitted while rendering. Once the
+     * render has timed out, writes fail, which aborts the view engine.
      */
     private static class DelegatingServletOutputStream extends ServletOutputStream {
 
         private final OutputStream out;
 
-        public DelegatingServletOutputStream(OutputStream out) {
+        private final boolean streamed;
+
+        private volatile boolean timedOut;
+
+        public DelegatingServletOutputStream(OutputStream out, boolean streamed) {
             this.out = out;
+            this.streamed = streamed;
         }
 
         @Override
         public void write(final int b) throws IOException {
+            checkTimeout();
             out.write(b);
         }
 
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkTimeout();
+            out.write(b, off, len);
+        }
+
+        private void checkTimeout() throws IOException {
+            if (timedOut) {
+                throw new IOException("Render timeout exceeded");
+            }
+        }
+
+        /*
+         * Called by the timer of the RenderLimiter once the render timeout has passed.
+         */
+        void timeOut() {
+            timedOut = true;
+        }
+
+        boolean isTimedOut() {
+            return timedOut;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (streamed) {
+                out.flush();
+            }
+        }
+
         @Override
         public boolean isReady() {
             return false;
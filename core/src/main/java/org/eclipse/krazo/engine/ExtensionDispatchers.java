@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.engine;
+
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRegistration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Maps extension mappings like {@code *.jsp} to the named dispatchers of the servlets
+ * handling them. The servlet registrations are scanned only once per servlet context,
+ * usually during startup, and the result is stored as a context attribute, so that
+ * {@link ServletViewEngine} doesn't need to iterate all registrations for every view.</p>
+ *
+ * @see ServletViewEngine#forwardRequest(jakarta.mvc.engine.ViewEngineContext, String...)
+ */
+public final class ExtensionDispatchers {
+
+    private static final String ATTRIBUTE = ExtensionDispatchers.class.getName();
+
+    private final Map<String, String> servletNames;
+
+    private final Map<String, RequestDispatcher> dispatchers;
+
+    private ExtensionDispatchers(Map<String, String> servletNames, Map<String, RequestDispatcher> dispatchers) {
+        this.servletNames = servletNames;
+        this.dispatchers = dispatchers;
+    }
+
+    /**
+     * Scans the servlet registrations of the context and stores the result as a context attribute.
+     *
+     * @param servletContext the servlet context.
+     * @return the dispatchers.
+     */
+    public static ExtensionDispatchers init(ServletContext servletContext) {
+
+        final Map<String, String> servletNames = new HashMap<>();
+        final Map<String, RequestDispatcher> dispatchers = new HashMap<>();
+
+        for (Map.Entry<String, ? extends ServletRegistration> e : servletContext.getServletRegistrations().entrySet()) {
+            final Collection<String> mappings = e.getValue().getMappings();
+            // the 'mappings' collection may be null on Liberty (see #200)
+            if (mappings == null) {
+                continue;
+            }
+            for (String mapping : mappings) {
+                if (mapping.startsWith("*.")) {
+                    servletNames.put(mapping, e.getKey());
+                    dispatchers.computeIfAbsent(e.getKey(), servletContext::getNamedDispatcher);
+                }
+            }
+        }
+
+        final ExtensionDispatchers result = new ExtensionDispatchers(
+            Collections.unmodifiableMap(servletNames), Collections.unmodifiableMap(dispatchers));
+        servletContext.setAttribute(ATTRIBUTE, result);
+        return result;
+
+    }
+
+    /**
+     * Returns the dispatchers stored in the context, scanning the registrations if
+     * this didn't happen during startup.
+     *
+     * @param servletContext the servlet context.
+     * @return the dispatchers.
+     */
+    public static ExtensionDispatchers get(ServletContext servletContext) {
+        final Object dispatchers = servletContext.getAttribute(ATTRIBUTE);
+        return dispatchers instanceof ExtensionDispatchers
+            ? (ExtensionDispatchers) dispatchers
+            : init(servletContext);
+    }
+
+    /**
+     * Finds the dispatcher of the servlet which is mapped to all of the given extensions.
+     *
+     * @param extensions extension mappings like {@code *.jsp}.
+     * @return the named dispatcher or {@code null} if there is no such servlet.
+     */
+    public RequestDispatcher find(String... extensions) {
+        if (extensions.length == 0) {
+            return null;
+        }
+        final String servletName = servletNames.get(extensions[0]);
+        if (servletName == null) {
+            return null;
+        }
+        for (int i = 1; i < extensions.length; i++) {
+            if (!servletName.equals(servletNames.get(extensions[i]))) {
+                return null;
+            }
+        }
+        return dispatchers.get(servletName);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.engine;
+
+import jakarta.mvc.Models;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Request wrapper which exposes the entries of {@link Models} as request attributes
+ * without copying them into the request. Lookups fall through to the models lazily, so
+ * containers don't fire attribute events for every model entry and views only pay for
+ * the entries they actually read.</p>
+ *
+ * <p>Model entries take precedence over attributes of the wrapped request, just like they
+ * would if they were copied into the request. Once a view sets or removes an attribute
+ * with the name of a model entry, the request attribute is used instead.</p>
+ */
+class ModelsRequestWrapper extends HttpServletRequestWrapper {
+
+    private final Models models;
+
+    private final Set<String> shadowed = new HashSet<>();
+
+    ModelsRequestWrapper(HttpServletRequest request, Models models) {
+        super(request);
+        this.models = models;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        if (!isShadowed(name)) {
+            final Object value = models.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return super.getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        // only check for the names, reading the values would resolve lazy models
+        final Map<String, Object> entries = models.asMap();
+        final Set<String> names = new LinkedHashSet<>();
+        for (String name : models) {
+            if (!isShadowed(name) && entries.containsKey(name)) {
+                names.add(name);
+            }
+        }
+        names.addAll(Collections.list(super.getAttributeNames()));
+        return Collections.enumeration(names);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        shadow(name);
+        super.setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        shadow(name);
+        super.removeAttribute(name);
+    }
+
+    private boolean isShadowed(String name) {
+        return shadowed.contains(name);
+    }
+
+    private void shadow(String name) {
+        shadowed.add(name);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.engine;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Read-only map which layers a few additional entries over a base map without copying
+ * the base map. Entries of the overlay shadow entries of the base map with the same key.
+ * View engines use this to expose the models together with objects like the current
+ * request to their templates.
+ *
+ * <p>Changes of the base map are visible through this map. All mutating operations throw
+ * {@link UnsupportedOperationException}.</p>
+ *
+ * @param <V> the value type
+ */
+public final class OverlayMap<V> extends AbstractMap<String, V> {
+
+    private final Map<String, ? extends V> base;
+    private final Map<String, ? extends V> overlay;
+
+    private Set<Entry<String, V>> entrySet;
+
+    /**
+     * Creates a new map which layers the entries of {@code overlay} over {@code base}.
+     *
+     * @param base the base map
+     * @param overlay the entries which shadow the entries of the base map
+     */
+    public OverlayMap(Map<String, ? extends V> base, Map<String, ? extends V> overlay) {
+        this.base = Objects.requireNonNull(base, "Base map must not be null");
+        this.overlay = Objects.requireNonNull(overlay, "Overlay map must not be null");
+    }
+
+    /**
+     * Creates a new map which layers a single entry over {@code base}.
+     *
+     * @param base the base map
+     * @param key the key of the additional entry
+     * @param value the value of the additional entry
+     * @param <V> the value type
+     * @return the new map
+     */
+    public static <V> OverlayMap<V> of(Map<String, ? extends V> base, String key, V value) {
+        return new OverlayMap<>(base, Collections.singletonMap(key, value));
+    }
+
+    @Override
+    public V get(Object key) {
+        return overlay.containsKey(key) ? overlay.get(key) : base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overlay.containsKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        int size = base.size();
+        for (String key : overlay.keySet()) {
+            if (!base.containsKey(key)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return overlay.isEmpty() && base.isEmpty();
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, V>> {
+
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return OverlayMap.this.size();
+        }
+
+    }
+
+    /**
+     * Iterates the overlay entries first and then all base entries which are not shadowed.
+     */
+    private final class EntryIterator implements Iterator<Entry<String, V>> {
+
+        private final Iterator<? extends Entry<String, ? extends V>> overlayEntries = overlay.entrySet().iterator();
+        private final Iterator<? extends Entry<String, ? extends V>> baseEntries = base.entrySet().iterator();
+
+        private Entry<String, V> next;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (overlayEntries.hasNext()) {
+                next = immutable(overlayEntries.next());
+                return true;
+            }
+            while (baseEntries.hasNext()) {
+                Entry<String, ? extends V> entry = baseEntries.next();
+                if (!overlay.containsKey(entry.getKey())) {
+                    next = immutable(entry);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Entry<String, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, V> result = next;
+            next = null;
+            return result;
+        }
+
+        private Entry<String, V> immutable(Entry<String, ? extends V> entry) {
+            return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+        }
+
+    }
+
+}
@@ -19,25 +19,21 @@
 package org.eclipse.krazo.engine;
 
 import jakarta.inject.Inject;
-import jakarta.mvc.Models;
 import jakarta.mvc.engine.ViewEngineContext;
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.ServletRegistration;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Map;
 
 /**
  * Base class for servlet-based view engines like JSPs and Facelets. Implements
  * a forward mechanism that attempts to avoid the standard servlet matching by
- * first looking at servlets that handle the specified extensions directly.
+ * first looking at servlets that handle the specified extensions directly. The
+ * servlets handling extensions are looked up once using {@link ExtensionDispatchers}.
  *
  * @author Santiago Pericas-Geertsen
  */
@@ -64,52 +60,21 @@ public abstract class ServletViewEngine extends ViewEngineBase {
      */
     protected void forwardRequest(ViewEngineContext context, String... extensions)
             throws ServletException, IOException {
-        RequestDispatcher rd = null;
-        HttpServletRequest request = context.getRequest(HttpServletRequest.class);
         final HttpServletResponse response = context.getResponse(HttpServletResponse.class);
+        final String view = resolveView(context);
 
-        // Set attributes in request before forward
-        final Models models = context.getModels();
-        for (String name : models) {
-            request.setAttribute(name, models.get(name));
-        }
+        // Expose models as request attributes without copying them
+        HttpServletRequest request = new ModelsRequestWrapper(context.getRequest(HttpServletRequest.class),
+                                                              context.getModels());
 
         // Find request dispatcher based on extensions
-        for (Map.Entry<String, ? extends ServletRegistration> e : servletContext.getServletRegistrations().entrySet()) {
-            final Collection<String> mappings = e.getValue().getMappings();
-            // the 'mappings' collection may be null on Liberty (see #200)
-            if (mappings != null && mappings.containsAll(Arrays.asList(extensions))) {
-                rd = servletContext.getNamedDispatcher(e.getKey());     // by servlet name
-
-                // Need new request with updated URI and extension matching semantics
-                request = new HttpServletRequestWrapper(context.getRequest(HttpServletRequest.class)) {
-                    @Override
-                    public String getRequestURI() {
-                        return resolveView(context);
-                    }
-
-                    @Override
-                    public String getServletPath() {
-                        return resolveView(context);
-                    }
-
-                    @Override
-                    public String getPathInfo() {
-                        return null;
-                    }
-
-                    @Override
-                    public StringBuffer getRequestURL() {
-                        return new StringBuffer(getRequestURI());
-                    }
-                };
-                break;
-            }
-        }
-
-        // If none found, go through servlet mapping
-        if (rd == null) {
-            rd = servletContext.getRequestDispatcher(resolveView(context));
+        RequestDispatcher rd = ExtensionDispatchers.get(servletContext).find(extensions);
+        if (rd != null) {
+            // Need new request with updated URI and extension matching semantics
+            request = new ViewRequestWrapper(request, view);
+        } else {
+            // If none found, go through servlet mapping
+            rd = servletContext.getRequestDispatcher(view);
         }
 
         /*
@@ -118,7 +83,46 @@ public abstract class ServletViewEngine extends ViewEngineBase {
          * we cannot assume that we get the "original" request/response. So we use wrapper classes
          * for the forward.
          */
-        rd.forward(new HttpServletRequestWrapper(request), new HttpServletResponseWrapper(response));
+        if (response.isCommitted()) {
+            // the prefix of a streamed view has already been sent, a forward would fail
+            rd.include(new HttpServletRequestWrapper(request), new HttpServletResponseWrapper(response));
+        } else {
+            rd.forward(new HttpServletRequestWrapper(request), new HttpServletResponseWrapper(response));
+        }
+
+    }
 
+    /**
+     * Request wrapper which makes the view look like the requested resource, so that
+     * the servlet handling the extension processes the view.
+     */
+    private static class ViewRequestWrapper extends HttpServletRequestWrapper {
+
+        private final String view;
+
+        ViewRequestWrapper(HttpServletRequest request, String view) {
+            super(request);
+            this.view = view;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return view;
+        }
+
+        @Override
+        public String getServletPath() {
+            return view;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return null;
+        }
+
+        @Override
+        public StringBuffer getRequestURL() {
+            return new StringBuffer(view);
+        }
     }
 }
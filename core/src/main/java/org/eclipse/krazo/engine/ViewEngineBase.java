@@ -23,9 +23,14 @@ import org.eclipse.krazo.util.PropertyUtils;
 
 import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base class for view engines that factors out all common logic.
@@ -34,6 +39,10 @@ import java.nio.charset.Charset;
  */
 public abstract class ViewEngineBase implements ViewEngine {
 
+    private static final int MAX_CONTENT_TYPES = 64;
+
+    private static final Map<MediaType, ContentType> contentTypes = new ConcurrentHashMap<>();
+
     /**
      * Resolves a view path based on {@link jakarta.mvc.engine.ViewEngine#VIEW_FOLDER}
      * in the active configuration. If the view is absolute, starts with '/', then
@@ -73,18 +82,64 @@ public abstract class ViewEngineBase implements ViewEngine {
      */
     protected Charset resolveCharsetAndSetContentType(ViewEngineContext context) {
 
-        String charset = context.getMediaType().getParameters().get("charset");
-        if (charset == null) {
-            charset = "UTF-8";
+        final MediaType mediaType = context.getMediaType();
+        ContentType contentType = contentTypes.get(mediaType);
+        if (contentType == null) {
+            contentType = new ContentType(mediaType);
+            if (contentTypes.size() < MAX_CONTENT_TYPES) {
+                contentTypes.put(mediaType, contentType);
+            }
         }
 
-        MediaType mediaType = context.getMediaType().withCharset(charset);
+        context.getResponseHeaders().putSingle(HttpHeaders.CONTENT_TYPE, contentType.value);
 
-        context.getResponseHeaders().putSingle(HttpHeaders.CONTENT_TYPE, mediaType.toString());
+        return contentType.charset;
 
-        return Charset.forName(charset);
+    }
 
+    /**
+     * Creates a writer which encodes the view with the given charset. UTF-8 and ISO-8859-1 are
+     * encoded by a buffered writer optimized for mostly ASCII content, other charsets use an
+     * {@link java.io.OutputStreamWriter}. Closing the writer closes the stream.
+     *
+     * @param out the stream, usually {@link ViewEngineContext#getOutputStream()}
+     * @param charset the charset returned by {@link #resolveCharsetAndSetContentType(ViewEngineContext)}
+     * @return the writer
+     */
+    protected Writer createWriter(OutputStream out, Charset charset) {
+        return ViewWriter.create(out, charset);
     }
 
+    /**
+     * Returns a read-only view of the models which additionally contains the current
+     * {@link HttpServletRequest} under the key {@code request}. The view is backed by
+     * the models, so no entries are copied. View engines which need to modify the map
+     * passed to the template have to copy it themselves.
+     *
+     * @param context the context
+     * @return the models together with the current request
+     */
+    protected Map<String, Object> getModelsWithRequest(ViewEngineContext context) {
+        return OverlayMap.of(context.getModels().asMap(), "request",
+            context.getRequest(HttpServletRequest.class));
+    }
+
+    /*
+     * The charset and the Content-Type header resolved for a media type.
+     */
+    private static final class ContentType {
 
+        private final Charset charset;
+
+        private final String value;
+
+        private ContentType(MediaType mediaType) {
+            String charset = mediaType.getParameters().get("charset");
+            if (charset == null) {
+                charset = "UTF-8";
+            }
+            this.charset = Charset.forName(charset);
+            this.value = mediaType.withCharset(charset).toString();
+        }
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Writer encoding rendered views in UTF-8 or ISO-8859-1 without the generic charset
+ * machinery of {@link OutputStreamWriter}. Runs of ASCII characters are copied into the
+ * buffer with a simple cast, everything else is encoded by hand. Characters which cannot be
+ * encoded, like unpaired surrogates, are replaced by '?', just as {@link OutputStreamWriter}
+ * does.</p>
+ *
+ * <p>The buffers are taken from a small pool shared by all requests and are returned when the
+ * writer is closed.</p>
+ */
+final class ViewWriter extends Writer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int POOL_SIZE = 32;
+
+    private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicInteger pooled = new AtomicInteger();
+
+    private final OutputStream out;
+
+    private final boolean utf8;
+
+    private byte[] buffer;
+
+    private int count;
+
+    // high surrogate of a pair split across two writes, 0 if none
+    private char highSurrogate;
+
+    private ViewWriter(OutputStream out, boolean utf8) {
+        this.out = out;
+        this.utf8 = utf8;
+        this.buffer = acquire();
+    }
+
+    /**
+     * Creates a writer for the charset, falling back to an {@link OutputStreamWriter} for
+     * charsets other than UTF-8 and ISO-8859-1.
+     *
+     * @param out the stream receiving the encoded view
+     * @param charset the charset
+     * @return the writer
+     */
+    static Writer create(OutputStream out, Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return new ViewWriter(out, true);
+        }
+        if (StandardCharsets.ISO_8859_1.equals(charset)) {
+            return new ViewWriter(out, false);
+        }
+        return new OutputStreamWriter(out, charset);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            // ASCII fast path
+            int limit = Math.min(end, i + buffer.length - count);
+            while (i < limit && highSurrogate == 0 && cbuf[i] < 0x80) {
+                buffer[count++] = (byte) cbuf[i++];
+            }
+            if (i < end) {
+                encode(cbuf[i++]);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            int limit = Math.min(end, i + buffer.length - count);
+            while (i < limit && highSurrogate == 0 && str.charAt(i) < 0x80) {
+                buffer[count++] = (byte) str.charAt(i++);
+            }
+            if (i < end) {
+                encode(str.charAt(i++));
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                put('?');
+            }
+            drain();
+            out.close();
+        } finally {
+            release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        if (highSurrogate != 0) {
+            final char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                if (utf8) {
+                    final int codePoint = Character.toCodePoint(high, c);
+                    reserve(4);
+                    buffer[count++] = (byte) (0xf0 | (codePoint >> 18));
+                    buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    buffer[count++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else {
+                    put('?');
+                }
+                return;
+            }
+            put('?');
+        }
+
+        if (c < 0x80) {
+            put(c);
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            put('?');
+        } else if (!utf8) {
+            put(c < 0x100 ? c : '?');
+        } else if (c < 0x800) {
+            reserve(2);
+            buffer[count++] = (byte) (0xc0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3f));
+        } else {
+            reserve(3);
+            buffer[count++] = (byte) (0xe0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buffer[count++] = (byte) (0x80 | (c & 0x3f));
+        }
+    }
+
+    private void put(char c) throws IOException {
+        reserve(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void reserve(int bytes) throws IOException {
+        if (count + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private static byte[] acquire() {
+        final byte[] pooledBuffer = pool.poll();
+        if (pooledBuffer != null) {
+            pooled.decrementAndGet();
+            return pooledBuffer;
+        }
+        return new byte[BUFFER_SIZE];
+    }
+
+    private static void release(byte[] buffer) {
+        if (pooled.incrementAndGet() <= POOL_SIZE) {
+            pool.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
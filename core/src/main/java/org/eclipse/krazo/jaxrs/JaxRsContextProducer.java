@@ -89,6 +89,33 @@ public class JaxRsContextProducer {
         return Objects.requireNonNull(resourceInfo, "Cannot produce ResourceInfo");
     }
 
+    /**
+     * Copies the context objects into another producer, so they can be produced in a request
+     * context on another thread.
+     *
+     * @param target the producer to copy to
+     */
+    public void copyTo(JaxRsContextProducer target) {
+        if (configuration != null) {
+            target.setConfiguration(configuration);
+        }
+        if (request != null) {
+            target.setRequest(request);
+        }
+        if (response != null) {
+            target.setResponse(response);
+        }
+        if (application != null) {
+            target.setApplication(application);
+        }
+        if (uriInfo != null) {
+            target.setUriInfo(uriInfo);
+        }
+        if (resourceInfo != null) {
+            target.setResourceInfo(resourceInfo);
+        }
+    }
+
     void setConfiguration(Configuration configuration) {
         this.configuration = Objects.requireNonNull(configuration, "Configuration must not be null");
     }
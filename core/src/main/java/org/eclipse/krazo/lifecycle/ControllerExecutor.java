@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.lifecycle;
+
+import org.eclipse.krazo.Properties;
+import org.eclipse.krazo.jaxrs.JaxRsContext;
+import org.eclipse.krazo.util.ExecutorUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Configuration;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the executor configured by {@link Properties#CONTROLLER_EXECUTOR}, which finishes
+ * asynchronous controllers and renders their views, and runs the tasks submitted to the
+ * {@link RequestContextExecutor}. The executor is created when the first controller is invoked
+ * and shut down with the application.
+ */
+@ApplicationScoped
+public class ControllerExecutor {
+
+    private static final Logger log = Logger.getLogger(ControllerExecutor.class.getName());
+
+    @Inject
+    @JaxRsContext
+    private Configuration config;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = ExecutorUtils.newExecutor("krazo-controller", config.getProperty(Properties.CONTROLLER_EXECUTOR));
+        if (executor != null) {
+            log.log(Level.FINE, "Asynchronous controllers are finished by: {0}", executor);
+        }
+    }
+
+    /**
+     * @return the configured executor or {@code null} if asynchronous controllers are finished
+     * by the thread completing their result.
+     */
+    public ExecutorService get() {
+        return executor;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        ExecutorUtils.shutdown(executor);
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.lifecycle;
+
+import org.eclipse.krazo.Properties;
+
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Provides an executor for the dependent stages of asynchronous controllers. Tasks run in a
+ * request context carrying Krazo's state of the current request, see
+ * {@link RequestContextTransfer}, so they may put models which are then rendered by the
+ * view.</p>
+ *
+ * <pre>
+ * return orderService.loadAsync()
+ *     .thenAcceptAsync(orders -&gt; models.put("orders", orders), requestContextExecutor.get());
+ * </pre>
+ *
+ * <p>The executor has to be obtained by the controller, while the request is being processed.
+ * It may then be used from any thread. With {@link Properties#CONTROLLER_EXECUTOR} configured,
+ * blocking work can be moved off the thread processing the request this way:</p>
+ *
+ * <pre>
+ * return CompletableFuture.runAsync(() -&gt; models.put("orders", orderRepository.findAll()),
+ *     requestContextExecutor.get());
+ * </pre>
+ *
+ * <p>Tasks may run in parallel. The models are shared by all of them and by the request
+ * itself, and are safe to use from several threads at the same time, see
+ * {@link org.eclipse.krazo.core.ModelsImpl#shareWith(org.eclipse.krazo.core.ModelsImpl)}. Other
+ * objects shared by the tasks have to be made thread-safe by the application.</p>
+ */
+@RequestScoped
+public class RequestContextExecutor {
+
+    @Inject
+    private RequestLifecycle requestLifecycle;
+
+    @Inject
+    private ControllerExecutor controllerExecutor;
+
+    /**
+     * Captures the state of the current request and returns an executor which runs tasks in
+     * a request context carrying that state. Tasks run on the executor configured by
+     * {@link Properties#CONTROLLER_EXECUTOR}, or else on the thread submitting them.
+     *
+     * @return the executor
+     */
+    public Executor get() {
+        final RequestContextTransfer transfer = requestLifecycle.captureStateForTasks();
+        final Executor executor = controllerExecutor.get();
+        if (executor == null) {
+            return transfer::run;
+        }
+        return task -> executor.execute(() -> transfer.run(task));
+    }
+
+}
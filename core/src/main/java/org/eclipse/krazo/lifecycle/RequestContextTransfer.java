@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.lifecycle;
+
+import org.eclipse.krazo.MvcContextImpl;
+import org.eclipse.krazo.binding.BindingResultImpl;
+import org.eclipse.krazo.core.ModelsImpl;
+import org.eclipse.krazo.jaxrs.JaxRsContextProducer;
+import org.eclipse.krazo.util.CdiUtils;
+
+import jakarta.enterprise.context.control.RequestContextController;
+import jakarta.enterprise.inject.Instance;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>Carries the state of Krazo's request-scoped beans from the thread which invoked the
+ * controller over to another thread, so an MVC request can be finished there. The state is
+ * captured when an instance is created. {@link #run(Runnable)} activates a new request
+ * context, restores the captured state into it and then runs the given task. View
+ * resolution, redirects and view rendering therefore see the same controller method, models,
+ * locale, binding result and JAX-RS context objects as the controller did.</p>
+ *
+ * <p>The models are not copied, the restored models share their entries with the models of
+ * the original request. Models put in any of these request contexts are therefore visible to
+ * the view, no matter when the state was captured.</p>
+ *
+ * <p>Only state owned by Krazo is carried over. Request-scoped beans of the application are
+ * created anew in the new request context.</p>
+ */
+public final class RequestContextTransfer {
+
+    private final Instance<RequestContextController> requestContextControllers;
+
+    private final Method controllerMethod;
+
+    private final Locale locale;
+
+    private final JaxRsContextProducer jaxRsContext = new JaxRsContextProducer();
+
+    private final ModelsImpl models = new ModelsImpl();
+
+    private final BindingResultImpl bindingResult;
+
+    /*
+     * The errors of the binding result are moved, so they are only reported by one of the request
+     * contexts. Transfers for tasks other than finishing the request pass null.
+     */
+    RequestContextTransfer(Instance<RequestContextController> requestContextControllers, Method controllerMethod,
+                           MvcContextImpl mvc, ModelsImpl models, BindingResultImpl bindingResult) {
+        this.requestContextControllers = requestContextControllers;
+        this.controllerMethod = controllerMethod;
+        this.locale = mvc.getLocale();
+        jaxRsContext().copyTo(this.jaxRsContext);
+        models.shareWith(this.models);
+        if (bindingResult != null) {
+            this.bindingResult = new BindingResultImpl();
+            bindingResult.transferTo(this.bindingResult);
+        } else {
+            this.bindingResult = null;
+        }
+    }
+
+    /**
+     * Runs the task in a new request context which contains the captured state. If the current
+     * thread already has an active request context, the task is handed over to another thread,
+     * because that context belongs to a different request.
+     *
+     * @param task the remaining processing of the request
+     */
+    public void run(Runnable task) {
+        final RequestContextController controller = requestContextControllers.get();
+        if (!controller.activate()) {
+            requestContextControllers.destroy(controller);
+            ForkJoinPool.commonPool().execute(() -> run(task));
+            return;
+        }
+        try {
+            restore();
+            task.run();
+        } finally {
+            controller.deactivate();
+            requestContextControllers.destroy(controller);
+        }
+    }
+
+    private void restore() {
+
+        // must come first, the other beans depend on the JAX-RS context objects
+        jaxRsContext.copyTo(jaxRsContext());
+
+        CdiUtils.getApplicationBean(RequestLifecycle.class)
+            .orElseThrow(() -> new IllegalStateException("Cannot find CDI managed RequestLifecycle"))
+            .restore(controllerMethod);
+        CdiUtils.getApplicationBean(MvcContextImpl.class)
+            .orElseThrow(() -> new IllegalStateException("Cannot find CDI managed MvcContextImpl"))
+            .setLocale(locale);
+        models.shareWith(CdiUtils.getApplicationBean(ModelsImpl.class)
+            .orElseThrow(() -> new IllegalStateException("Cannot find CDI managed ModelsImpl")));
+        if (bindingResult != null) {
+            bindingResult.transferTo(CdiUtils.getApplicationBean(BindingResultImpl.class)
+                .orElseThrow(() -> new IllegalStateException("Cannot find CDI managed BindingResultImpl")));
+        }
+
+    }
+
+    private static JaxRsContextProducer jaxRsContext() {
+        return CdiUtils.getApplicationBean(JaxRsContextProducer.class)
+            .orElseThrow(() -> new IllegalStateException("Cannot find CDI managed JaxRsContextProducer"));
+    }
+
+}
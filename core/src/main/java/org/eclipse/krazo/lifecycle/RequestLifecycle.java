@@ -20,12 +20,23 @@ package org.eclipse.krazo.lifecycle;
 import java.lang.reflect.Method;
 import java.util.Locale;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
 
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.context.control.RequestContextController;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.container.ContainerRequestContext;
 
 import org.eclipse.krazo.MvcContextImpl;
+import org.eclipse.krazo.Properties;
+import org.eclipse.krazo.binding.BindingResultImpl;
+import org.eclipse.krazo.core.ModelsImpl;
+import org.eclipse.krazo.core.ViewPrefixWriter;
 import org.eclipse.krazo.locale.LocaleResolverChain;
 
 /**
@@ -43,10 +54,27 @@ public class RequestLifecycle {
     @Inject
     private MvcContextImpl mvc;
 
+    @Inject
+    private ModelsImpl models;
+
+    @Inject
+    private BindingResultImpl bindingResult;
+
+    @Inject
+    private Instance<RequestContextController> requestContextControllers;
+
+    @Inject
+    private ControllerExecutor controllerExecutor;
+
+    @Inject
+    private ViewPrefixWriter viewPrefixWriter;
+
     private boolean controllerExecuted = false;
 
     private Method controllerMethod;
 
+    private TransferringAsyncResponse asyncResponse;
+
     public void beforeAll(ContainerRequestContext context) {
 
         // initialize request locale
@@ -56,18 +84,108 @@ public class RequestLifecycle {
     }
 
     public Object aroundController(final Method method, Callable<Object> invocation) throws Exception {
+
+        // send the head of streamed views while the controller is still working
+        viewPrefixWriter.writePrefix(method);
+
+        return invokeController(method, invocation);
+    }
+
+    private Object invokeController(final Method method, Callable<Object> invocation) throws Exception {
         this.controllerMethod = method;
 
         eventDispatcher.fireBeforeControllerEvent();
+        final Object result;
         try {
-            Object result = invocation.call();
+            result = invocation.call();
             controllerExecuted = true;
 
-            return result;
-
         } finally {
             eventDispatcher.fireAfterControllerEvent();
+            if (!controllerExecuted && asyncResponse != null) {
+                asyncResponse.transfer(null);
+            }
+        }
+
+        // finish the request in a request context even if the result is completed by another thread
+        if (result instanceof CompletionStage) {
+            return resumeInRequestContext(method, (CompletionStage<?>) result);
         }
+        if (asyncResponse != null) {
+            asyncResponse.transfer(captureState(method));
+        }
+        return result;
+    }
+
+    /**
+     * Wraps an {@link AsyncResponse} passed to a controller, so that the request is finished in a
+     * request context carrying the state of the current one, regardless of the thread which
+     * resumes the response. If {@link Properties#CONTROLLER_EXECUTOR} is configured, the request
+     * is finished on a thread of that executor.
+     *
+     * @param asyncResponse the response injected by JAX-RS
+     * @return the wrapped response
+     */
+    public AsyncResponse wrapAsyncResponse(AsyncResponse asyncResponse) {
+        this.asyncResponse = new TransferringAsyncResponse(asyncResponse, controllerExecutor.get());
+        return this.asyncResponse;
+    }
+
+    /**
+     * Captures the state of the request-scoped beans of the current request, so the request can
+     * be finished on another thread.
+     *
+     * @param method the controller method
+     * @return the captured state
+     */
+    public RequestContextTransfer captureState(Method method) {
+        return new RequestContextTransfer(requestContextControllers, method, mvc, models, bindingResult);
+    }
+
+    /**
+     * Captures the state of the request-scoped beans of the current request for tasks which
+     * continue the controller on other threads. Unlike {@link #captureState(Method)}, the errors
+     * of the binding result stay with the current request.
+     *
+     * @return the captured state
+     */
+    RequestContextTransfer captureStateForTasks() {
+        return new RequestContextTransfer(requestContextControllers, controllerMethod, mvc, models, null);
+    }
+
+    private Object resumeInRequestContext(Method method, CompletionStage<?> stage) {
+
+        // nothing to carry over if already completed, and we cannot substitute custom stage types
+        if (stage.toCompletableFuture().isDone() || !method.getReturnType().isAssignableFrom(CompletableFuture.class)) {
+            return stage;
+        }
+
+        final RequestContextTransfer transfer = captureState(method);
+        final ExecutorService executor = controllerExecutor.get();
+        final CompletableFuture<Object> resumed = new CompletableFuture<>();
+        stage.whenComplete((value, error) -> {
+            final Runnable resume = () -> transfer.run(() -> complete(resumed, value, error));
+            if (executor != null) {
+                executor.execute(resume);
+            } else {
+                resume.run();
+            }
+        });
+        return resumed;
+    }
+
+    private static void complete(CompletableFuture<Object> future, Object value, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error);
+        } else {
+            future.complete(value);
+        }
+    }
+
+    void restore(Method controllerMethod) {
+        this.controllerMethod = controllerMethod;
+        this.controllerExecuted = true;
     }
 
     public boolean isControllerExecuted() {
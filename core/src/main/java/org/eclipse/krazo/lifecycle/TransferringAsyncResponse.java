@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.lifecycle;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.TimeoutHandler;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AsyncResponse} passed to controllers instead of the one injected by JAX-RS. Resuming
+ * it finishes the request in a request context carrying the state of the original request,
+ * see {@link RequestContextTransfer}. Resuming before the controller method has returned
+ * defers the actual resume until then, because the state is captured at that time.
+ * If an executor is given, the request is finished on one of its threads.
+ */
+class TransferringAsyncResponse implements AsyncResponse {
+
+    private final AsyncResponse delegate;
+
+    private final CompletableFuture<RequestContextTransfer> transfer = new CompletableFuture<>();
+
+    private final Executor executor;
+
+    TransferringAsyncResponse(AsyncResponse delegate) {
+        this(delegate, null);
+    }
+
+    TransferringAsyncResponse(AsyncResponse delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * Provides the captured state once the controller method has returned.
+     *
+     * @param transfer the captured state or {@code null} to resume without carrying over any state
+     */
+    void transfer(RequestContextTransfer transfer) {
+        this.transfer.complete(transfer);
+    }
+
+    @Override
+    public boolean resume(Object response) {
+        final boolean suspended = delegate.isSuspended();
+        resumeWithTransfer(() -> delegate.resume(response));
+        return suspended;
+    }
+
+    @Override
+    public boolean resume(Throwable response) {
+        final boolean suspended = delegate.isSuspended();
+        resumeWithTransfer(() -> delegate.resume(response));
+        return suspended;
+    }
+
+    private void resumeWithTransfer(Runnable resume) {
+        transfer.thenAccept(state -> {
+            final Runnable task = state != null ? () -> state.run(resume) : resume;
+            if (executor != null) {
+                executor.execute(task);
+            } else {
+                task.run();
+            }
+        });
+    }
+
+    @Override
+    public boolean cancel() {
+        return delegate.cancel();
+    }
+
+    @Override
+    public boolean cancel(int retryAfter) {
+        return delegate.cancel(retryAfter);
+    }
+
+    @Override
+    public boolean cancel(Date retryAfter) {
+        return delegate.cancel(retryAfter);
+    }
+
+    @Override
+    public boolean isSuspended() {
+        return delegate.isSuspended();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return delegate.isDone();
+    }
+
+    @Override
+    public boolean setTimeout(long time, TimeUnit unit) {
+        return delegate.setTimeout(time, unit);
+    }
+
+    @Override
+    public void setTimeoutHandler(TimeoutHandler handler) {
+        delegate.setTimeoutHandler(asyncResponse -> handler.handleTimeout(this));
+    }
+
+    @Override
+    public Collection<Class<?>> register(Class<?> callback) {
+        return delegate.register(callback);
+    }
+
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+        return delegate.register(callback, callbacks);
+    }
+
+    @Override
+    public Collection<Class<?>> register(Object callback) {
+        return delegate.register(callback);
+    }
+
+    @Override
+    public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+        return delegate.register(callback, callbacks);
+    }
+
+}
@@ -20,6 +20,8 @@ package org.eclipse.krazo.security;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.mvc.security.Encoders;
+import java.io.IOException;
+import java.io.Writer;
 
 /**
  * Utility bean that provides encoders to <em>escape</em> code in JavaScript, HTML,
@@ -32,84 +34,123 @@ import jakarta.mvc.security.Encoders;
 @ApplicationScoped
 public class EncodersImpl implements Encoders {
 
+    // replacements of the ASCII characters which need escaping, other characters are kept
+    private static final String[] JS_ESCAPES = new String[128];
+
+    private static final String[] HTML_ESCAPES = new String[128];
+
+    static {
+        for (char ch = '\u0000'; ch <= '\u001F'; ch++) {
+            JS_ESCAPES[ch] = "\\x" + (ch <= '\u000F' ? "0" : "") + Integer.toHexString(ch);
+        }
+        JS_ESCAPES['\b'] = "\\b";
+        JS_ESCAPES['\t'] = "\\t";
+        JS_ESCAPES['\n'] = "\\n";
+        JS_ESCAPES['\f'] = "\\f";
+        JS_ESCAPES['\r'] = "\\r";
+        JS_ESCAPES['/'] = "\\/";
+        JS_ESCAPES['\\'] = "\\\\";
+        JS_ESCAPES['\"'] = "\\x22";
+        JS_ESCAPES['&'] = "\\x26";
+        JS_ESCAPES['\''] = "\\x27";
+
+        HTML_ESCAPES['&'] = "&amp;";
+        HTML_ESCAPES['<'] = "&lt;";
+        HTML_ESCAPES['>'] = "&gt;";
+        HTML_ESCAPES['"'] = "&#34;";
+        HTML_ESCAPES['\''] = "&#39;";
+    }
+
     public String js(String s) {
+        return encode(s, JS_ESCAPES);
+    }
+
+    public String html(String s) {
+        return encode(s, HTML_ESCAPES);
+    }
+
+    /**
+     * Escapes a value for JavaScript like {@link #js(String)}, but appends the result to the
+     * given output instead of creating a new string. Nothing is appended for {@code null}.
+     *
+     * @param s the value to escape
+     * @param out the output, for example the writer of a page
+     * @throws IOException if appending to the output fails
+     */
+    public void js(CharSequence s, Appendable out) throws IOException {
+        encode(s, out, JS_ESCAPES);
+    }
+
+    /**
+     * Escapes a value for HTML like {@link #html(String)}, but appends the result to the
+     * given output instead of creating a new string. Nothing is appended for {@code null}.
+     *
+     * @param s the value to escape
+     * @param out the output, for example the writer of a page
+     * @throws IOException if appending to the output fails
+     */
+    public void html(CharSequence s, Appendable out) throws IOException {
+        encode(s, out, HTML_ESCAPES);
+    }
+
+    private static String encode(String s, String[] escapes) {
         if (s == null) {
             return null;
         }
-        final int l = s.length();
-        final StringBuffer sb = new StringBuffer(l);
-        for (int i = 0; i < l; i++) {
-            final char ch = s.charAt(i);
-            switch (ch) {
-                case '\b':
-                    sb.append("\\b");
-                    break;
-                case '\t':
-                    sb.append("\\t");
-                    break;
-                case '\n':
-                    sb.append("\\n");
-                    break;
-                case '\f':
-                    sb.append("\\f");
-                    break;
-                case '\r':
-                    sb.append("\\r");
-                    break;
-                case '/':
-                    sb.append("\\/");
-                    break;
-                case '\\':
-                    sb.append("\\\\");
-                    break;
-                case '\"':
-                    sb.append("\\x22");
-                    break;
-                case '&':
-                    sb.append("\\x26");
-                    break;
-                case '\'':
-                    sb.append("\\x27");
-                    break;
-                default:
-                    if (ch >= '\u0000' && ch <= '\u001F') {
-                        sb.append("\\x").append(ch <= '\u000F' ? "0" : "").append(Integer.toHexString(ch));
-                    } else {
-                        sb.append(ch);
-                    }
-            }
+        final int first = indexOfEscape(s, 0, escapes);
+        if (first < 0) {
+            return s;
+        }
+        final StringBuilder sb = new StringBuilder(s.length() + 16);
+        try {
+            sb.append(s, 0, first);
+            encode(s, first, sb, escapes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);     // never thrown by StringBuilder
         }
         return sb.toString();
     }
 
-    public String html(String s) {
-        if (s == null) {
-            return null;
+    private static void encode(CharSequence s, Appendable out, String[] escapes) throws IOException {
+        if (s != null) {
+            encode(s, 0, out, escapes);
+        }
+    }
+
+    private static void encode(CharSequence s, int start, Appendable out, String[] escapes) throws IOException {
+        int i = indexOfEscape(s, start, escapes);
+        while (i >= 0) {
+            append(s, start, i, out);
+            out.append(escapes[s.charAt(i)]);
+            start = i + 1;
+            i = indexOfEscape(s, start, escapes);
         }
+        append(s, start, s.length(), out);
+    }
+
+    private static int indexOfEscape(CharSequence s, int start, String[] escapes) {
         final int l = s.length();
-        final StringBuffer sb = new StringBuffer(l);
-        for (int i = 0; i < l; i++) {
+        for (int i = start; i < l; i++) {
             final char ch = s.charAt(i);
-            switch (ch) {
-                case '&':
-                    sb.append("&amp;");
-                    break;
-                case '<':
-                    sb.append("&lt;");
-                    break;
-                case '>':
-                    sb.append("&gt;");
-                    break;
-                case '"':
-                    sb.append("&#34;");
-                    break;
-                case '\'':
-                    sb.append("&#39;");
-                    break;
-                default:
-                    sb.append(ch);
+            if (ch < escapes.length && escapes[ch] != null) {
+                return i;
             }
         }
-        return sb.toString();
+        return -1;
+    }
+
+    /*
+     * Appends a run of unescaped characters, avoiding the substring which
+     * Writer#append(CharSequence, int, int) creates.
+     */
+    private static void append(CharSequence s, int start, int end, Appendable out) throws IOException {
+        if (start == end) {
+            return;
+        }
+        if (out instanceof Writer && s instanceof String) {
+            ((Writer) out).write((String) s, start, end - start);
+        } else {
+            out.append(s, start, end);
+        }
     }
 }
@@ -17,6 +17,8 @@
  */
 package org.eclipse.krazo.servlet;
 
+import org.eclipse.krazo.engine.ExtensionDispatchers;
+
 import jakarta.enterprise.inject.spi.Bean;
 import jakarta.enterprise.inject.spi.BeanManager;
 import jakarta.inject.Inject;
@@ -62,6 +64,9 @@ public class KrazoServletContextListener implements ServletContextListener {
             failIfNoCdiBean(controllerClass);
             warnIfAnnotatedWithNamed(controllerClass);
         }
+
+        // all servlets are registered at this point, so look up the extension mappings used by view engines once
+        ExtensionDispatchers.init(servletContext);
     }
 
     /**
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * <p>Watches a set of directories for changes using a {@link WatchService} and notifies
+ * a listener about every created, modified or deleted entry. View engines use this class
+ * to invalidate cached templates without checking the file system on every request.</p>
+ *
+ * <p>Events are dispatched on a single daemon thread. If the underlying watch service
+ * drops events, the listener is called with the watched directory itself, so listeners
+ * should treat a directory path as "anything below this directory may have changed".</p>
+ */
+public class DirectoryWatcher implements Closeable {
+
+    private static final Logger log = Logger.getLogger(DirectoryWatcher.class.getName());
+
+    private final WatchService watchService;
+
+    private final Consumer<Path> listener;
+
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new watcher and starts its dispatcher thread.
+     *
+     * @param name the name of the dispatcher thread.
+     * @param listener listener to be notified about changed paths.
+     * @throws IOException if the watch service cannot be created.
+     */
+    public DirectoryWatcher(String name, Consumer<Path> listener) throws IOException {
+        this.listener = Objects.requireNonNull(listener, "Listener must not be null");
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Thread thread = new Thread(this::dispatch, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts watching the given directory. Registering the same directory more than
+     * once has no effect.
+     *
+     * @param directory the directory to watch.
+     */
+    public void register(Path directory) {
+        Objects.requireNonNull(directory, "Directory must not be null");
+        if (closed || !directories.add(directory)) {
+            return;
+        }
+        try {
+            keys.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+        } catch (IOException | ClosedWatchServiceException e) {
+            directories.remove(directory);
+            log.log(Level.WARNING, "Unable to watch directory " + directory, e);
+        }
+    }
+
+    /**
+     * Returns whether the given directory is currently being watched.
+     *
+     * @param directory the directory.
+     * @return {@code true} if the directory is watched.
+     */
+    public boolean isWatching(Path directory) {
+        return directories.contains(directory);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.log(Level.FINE, "Unable to close watch service", e);
+        }
+    }
+
+    private void dispatch() {
+        while (!closed) {
+
+            final WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+
+            final Path directory = keys.get(key);
+            if (directory != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    final Path changed = event.kind() == OVERFLOW
+                        ? directory
+                        : directory.resolve((Path) event.context());
+                    try {
+                        listener.accept(changed);
+                    } catch (RuntimeException e) {
+                        log.log(Level.WARNING, "Listener failed to handle change of " + changed, e);
+                    }
+                }
+            }
+
+            if (!key.reset()) {
+                keys.remove(key);
+                if (directory != null) {
+                    directories.remove(directory);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Utility class for creating and disposing the executors used by Krazo and its extensions.
+ * Virtual threads are looked up reflectively, because Krazo is compiled for Java 8 but may
+ * run on Java 21 or newer.
+ */
+public final class ExecutorUtils {
+
+    /**
+     * Property value which selects an executor using one virtual thread per task.
+     */
+    public static final String VIRTUAL = "virtual";
+
+    private static final Logger log = Logger.getLogger(ExecutorUtils.class.getName());
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookupVirtualThreadPerTaskExecutor();
+
+    /**
+     * @return {@code true} if the runtime supports virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor which starts a new virtual thread for each task.
+     *
+     * @return the executor.
+     * @throws UnsupportedOperationException if the runtime doesn't support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable to create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Creates an executor with a fixed number of daemon threads.
+     *
+     * @param name prefix for the names of the threads.
+     * @param threads the number of threads.
+     * @return the executor.
+     */
+    public static ExecutorService newBoundedExecutor(String name, int threads) {
+        final AtomicInteger counter = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Creates an executor from a configuration value. The value {@value #VIRTUAL} selects
+     * virtual threads, falling back to a cached pool of daemon threads if virtual threads are
+     * not supported. A positive number creates a bounded executor with this number of threads.
+     * A missing value, {@code 0} or a negative number disables the executor.
+     *
+     * @param name prefix for the names of the threads.
+     * @param value the configuration value.
+     * @return the executor or {@code null} if disabled.
+     * @throws IllegalArgumentException if the value is neither a number nor {@value #VIRTUAL}.
+     */
+    public static ExecutorService newExecutor(String name, Object value) {
+        if (value == null) {
+            return null;
+        }
+        final String spec = value.toString().trim();
+        if (VIRTUAL.equalsIgnoreCase(spec)) {
+            if (isVirtualThreadSupported()) {
+                return newVirtualThreadPerTaskExecutor();
+            }
+            log.log(Level.WARNING, "Virtual threads are not supported by this runtime, using platform threads for {0}", name);
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        final int threads;
+        try {
+            threads = Integer.parseInt(spec);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid executor configuration for " + name + ": " + value, e);
+        }
+        return threads > 0 ? newBoundedExecutor(name, threads) : null;
+    }
+
+    /**
+     * Shuts down the executor and waits a short time for running tasks to complete.
+     *
+     * @param executor the executor, may be {@code null}.
+     */
+    public static void shutdown(ExecutorService executor) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Method lookupVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private ExecutorUtils() {
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>A thread-safe cache which evicts the least recently used entries once the total weight
+ * of all entries exceeds a configured maximum. The weight of an entry is computed by a
+ * weigher function, so the cache can either be bounded by the number of entries (every
+ * entry weighs {@code 1}) or by the size of the cached values, e.g. a number of bytes.</p>
+ *
+ * <p>The cache uses a lock instead of {@code synchronized} blocks, so threads waiting for
+ * the cache never pin a carrier thread.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class LruCache<K, V> {
+
+    private final long maxWeight;
+
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long weight;
+
+    /**
+     * Creates a cache bounded by the number of entries.
+     *
+     * @param maxEntries the maximum number of entries.
+     */
+    public LruCache(long maxEntries) {
+        this(maxEntries, value -> 1);
+    }
+
+    /**
+     * Creates a cache bounded by the total weight of its entries.
+     *
+     * @param maxWeight the maximum total weight of all entries.
+     * @param weigher computes the weight of a single value.
+     */
+    public LruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = Objects.requireNonNull(weigher, "Weigher must not be null");
+    }
+
+    /**
+     * Returns the cached value for the key and marks it as recently used.
+     *
+     * @param key the key.
+     * @return the value or {@code null} if there is no such entry.
+     */
+    public V get(K key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an entry to the cache and evicts the least recently used entries if required.
+     * Values which are heavier than the maximum weight are not cached at all.
+     *
+     * @param key the key.
+     * @param value the value.
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(value, "Value must not be null");
+        final long valueWeight = weigher.applyAsLong(value);
+        lock.lock();
+        try {
+            final V previous = entries.remove(key);
+            if (previous != null) {
+                weight -= weigher.applyAsLong(previous);
+            }
+            if (valueWeight > maxWeight) {
+                return;
+            }
+            entries.put(key, value);
+            weight += valueWeight;
+            final Iterator<V> eldest = entries.values().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                weight -= weigher.applyAsLong(eldest.next());
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry for the given key.
+     *
+     * @param key the key.
+     */
+    public void remove(K key) {
+        lock.lock();
+        try {
+            final V previous = entries.remove(key);
+            if (previous != null) {
+                weight -= weigher.applyAsLong(previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries whose key matches the given predicate.
+     *
+     * @param predicate the predicate.
+     */
+    public void removeIf(Predicate<? super K> predicate) {
+        lock.lock();
+        try {
+            final Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<K, V> entry = iterator.next();
+                if (predicate.test(entry.getKey())) {
+                    weight -= weigher.applyAsLong(entry.getValue());
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of entries.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the total weight of all entries.
+     */
+    public long weight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -42,4 +42,60 @@ public final class PropertyUtils {
         final Object obj = config.getProperty(name);
         return obj != null ? (T) obj : defaultValue;
     }
+
+    /**
+     * Search for a numeric property and return a default value if not found. The
+     * property may either be a {@link Number} or a string representation of a number.
+     *
+     * @param config configuration to search for property.
+     * @param name property name.
+     * @param defaultValue default value.
+     * @return property or default value.
+     * @throws IllegalArgumentException if the property value is not a number.
+     */
+    public static long getLongProperty(Configuration config, String name, long defaultValue) {
+        final Object obj = config.getProperty(name);
+        if (obj instanceof Number) {
+            return ((Number) obj).longValue();
+        }
+        if (obj != null) {
+            try {
+                return Long.parseLong(obj.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Property '" + name + "' is not a number: " + obj, e);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Search for a numeric property and return a default value if not found. The
+     * property may either be a {@link Number} or a string representation of a number.
+     *
+     * @param config configuration to search for property.
+     * @param name property name.
+     * @param defaultValue default value.
+     * @return property or default value.
+     * @throws IllegalArgumentException if the property value is not a number.
+     */
+    public static int getIntProperty(Configuration config, String name, int defaultValue) {
+        return Math.toIntExact(getLongProperty(config, name, defaultValue));
+    }
+
+    /**
+     * Search for a boolean property and return a default value if not found. The
+     * property may either be a {@link Boolean} or a string like {@code "true"}.
+     *
+     * @param config configuration to search for property.
+     * @param name property name.
+     * @param defaultValue default value.
+     * @return property or default value.
+     */
+    public static boolean getBooleanProperty(Configuration config, String name, boolean defaultValue) {
+        final Object obj = config.getProperty(name);
+        if (obj instanceof Boolean) {
+            return (Boolean) obj;
+        }
+        return obj != null ? Boolean.parseBoolean(obj.toString().trim()) : defaultValue;
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the CompactMap class.
+ */
+public class CompactMapTest {
+
+    @Test
+    public void behavesLikeLinkedHashMap() {
+        for (int count : new int[]{0, 1, CompactMap.HASH_THRESHOLD, CompactMap.HASH_THRESHOLD + 1, 100}) {
+            Map<String, Object> expected = new LinkedHashMap<>();
+            Map<String, Object> map = new CompactMap<>();
+            for (int i = 0; i < count; i++) {
+                expected.put("key" + i, i);
+                map.put("key" + i, i);
+            }
+            assertEquals(expected, map);
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+
+            for (int i = 0; i < count; i += 3) {
+                assertEquals(expected.remove("key" + i), map.remove("key" + i));
+            }
+            assertEquals(expected, map);
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+            for (String key : expected.keySet()) {
+                assertEquals(expected.get(key), map.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void replacingKeepsPosition() {
+        Map<String, Object> map = new CompactMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        assertEquals(1, map.put("a", 3));
+
+        List<String> keys = new ArrayList<>(map.keySet());
+        assertEquals("a", keys.get(0));
+        assertEquals(3, map.get("a"));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void supportsNullValues() {
+        Map<String, Object> map = new CompactMap<>();
+        map.put("a", null);
+        assertTrue(map.containsKey("a"));
+        assertNull(map.get("a"));
+        assertFalse(map.containsKey(null));
+    }
+
+    @Test
+    public void iteratorRemoves() {
+        Map<String, Object> map = new CompactMap<>();
+        for (int i = 0; i < 20; i++) {
+            map.put("key" + i, i);
+        }
+        Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if ((Integer) iterator.next().getValue() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(10, map.size());
+        assertNull(map.get("key0"));
+        assertEquals(19, map.get("key19"));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorDetectsModification() {
+        Map<String, Object> map = new CompactMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        for (String key : map.keySet()) {
+            map.put(key + key, 3);
+        }
+    }
+
+}
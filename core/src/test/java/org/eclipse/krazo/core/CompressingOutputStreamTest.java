@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.junit.Test;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the CompressingOutputStream class.
+ */
+public class CompressingOutputStreamTest {
+
+    private static final byte[] VIEW = html(200);
+
+    @Test
+    public void testNegotiate() {
+        assertEquals("gzip", CompressingOutputStream.negotiate("gzip, deflate, br"));
+        assertEquals("gzip", CompressingOutputStream.negotiate("deflate, gzip"));
+        assertEquals("deflate", CompressingOutputStream.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("deflate", CompressingOutputStream.negotiate("deflate, gzip;q=0"));
+        assertEquals("gzip", CompressingOutputStream.negotiate("*"));
+        assertEquals("deflate", CompressingOutputStream.negotiate("*, gzip;q=0"));
+        assertNull(CompressingOutputStream.negotiate("br, identity"));
+        assertNull(CompressingOutputStream.negotiate(null));
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        final MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        final byte[] compressed = compress("gzip", headers, VIEW);
+
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(compressed.length < VIEW.length);
+        assertArrayEquals(VIEW, read(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        final MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        final byte[] compressed = compress("deflate", headers, VIEW);
+
+        assertEquals("deflate", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(VIEW, read(new InflaterInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testSmallView() throws Exception {
+        final MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        final byte[] small = html(1);
+        assertArrayEquals(small, compress("gzip", headers, small));
+        assertNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testPooledDeflaters() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            final byte[] compressed = compress("gzip", new MultivaluedHashMap<>(), VIEW);
+            assertArrayEquals(VIEW, read(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        }
+    }
+
+    @Test
+    public void testFlush() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CompressingOutputStream stream = new CompressingOutputStream(out, new MultivaluedHashMap<>(), "deflate",
+                                                                           Deflater.DEFAULT_COMPRESSION, 1024);
+        try {
+            stream.write(html(1));
+            stream.flush();
+
+            // everything written so far can be decompressed by the client
+            final InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(out.toByteArray()));
+            final byte[] head = new byte[html(1).length];
+            int read = 0;
+            while (read < head.length) {
+                read += in.read(head, read, head.length - read);
+            }
+            assertArrayEquals(html(1), head);
+        } finally {
+            stream.release();
+        }
+    }
+
+    private static byte[] compress(String encoding, MultivaluedHashMap<String, Object> headers, byte[] view)
+        throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CompressingOutputStream stream = new CompressingOutputStream(out, headers, encoding,
+                                                                           Deflater.DEFAULT_COMPRESSION, 1024);
+        try {
+            stream.write(view, 0, 10);
+            stream.write(view[10]);
+            stream.write(view, 11, view.length - 11);
+            stream.finish();
+        } finally {
+            stream.release();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] html(int rows) {
+        final StringBuilder html = new StringBuilder("<table>");
+        for (int i = 0; i < rows; i++) {
+            html.append("<tr><td>Row ").append(i).append("</td></tr>");
+        }
+        return html.append("</table>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
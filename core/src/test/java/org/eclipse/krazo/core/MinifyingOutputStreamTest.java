@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.junit.Test;
+
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the MinifyingOutputStream class.
+ */
+public class MinifyingOutputStreamTest {
+
+    @Test
+    public void testWhitespace() throws IOException {
+        assertEquals(" <html>\n<body class=\"a  b\">\n<p>Hello World!</p>\n</body>\n</html>",
+                     minify("  <html>\n  <body   class=\"a  b\" >\n    <p>Hello \t World!</p>\n  </body>\n</html>\n"));
+    }
+
+    @Test
+    public void testComments() throws IOException {
+        assertEquals("<!DOCTYPE html>\n<p>a b</p>", minify("<!DOCTYPE html>\n<!-- header -->\n<p>a <!-- x -- y --> b</p>"));
+    }
+
+    @Test
+    public void testRawElements() throws IOException {
+        final String pre = "<PRE class=\"x>y\">  a\n\n  <b>b</b>  </pre >";
+        final String textarea = "<textarea>  <!-- kept -->  </textarea>";
+        final String script = "<script>\n  if (a < b &&  c) {\n    s = '</scripts>';\n  }\n</script>";
+        final String style = "<style>\n  p  { }\n</STYLE>";
+        assertEquals(pre.replace("</pre >", "</pre>") + " " + textarea + "\n" + script + "\n" + style,
+                     minify(pre + "  " + textarea + "\n  " + script + "\n  " + style));
+    }
+
+    @Test
+    public void testText() throws IOException {
+        assertEquals("a < b <3 </> c", minify("a  <  b <3 </> c"));
+        assertEquals("<prefix> a </prefix>", minify("<prefix>\ta  </prefix>"));
+    }
+
+    @Test
+    public void testSplitWrites() throws IOException {
+        final String view = "<div>\n  <!-- c -->\n  <pre>  x  </pre>\n</div>";
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final MinifyingOutputStream minifier = new MinifyingOutputStream(out);
+        for (byte b : view.getBytes(StandardCharsets.UTF_8)) {
+            minifier.write(b);
+            minifier.flush();
+        }
+        minifier.finish();
+        assertEquals(minify(view), out.toString("UTF-8"));
+        assertEquals("<div>\n<pre>  x  </pre>\n</div>", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void testFlush() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final MinifyingOutputStream minifier = new MinifyingOutputStream(out);
+        minifier.write("<p>a</p><scr".getBytes(StandardCharsets.UTF_8));
+        minifier.flush();
+        assertEquals("<p>a</p>", out.toString("UTF-8"));
+        minifier.finish();
+        assertEquals("<p>a</p><scr", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void testIsEnabled() {
+        final Configuration config = createNiceMock(Configuration.class);
+        expect(config.getProperty(Properties.VIEW_MINIFICATION)).andReturn("true").anyTimes();
+        replay(config);
+
+        assertTrue(MinifyingOutputStream.isEnabled(config, MediaType.TEXT_HTML_TYPE.withCharset("UTF-8")));
+        assertTrue(MinifyingOutputStream.isEnabled(config, MediaType.TEXT_HTML_TYPE.withCharset("ISO-8859-1")));
+        assertFalse(MinifyingOutputStream.isEnabled(config, MediaType.TEXT_HTML_TYPE.withCharset("UTF-16")));
+        assertFalse(MinifyingOutputStream.isEnabled(config, MediaType.APPLICATION_JSON_TYPE.withCharset("UTF-8")));
+    }
+
+    private static String minify(String view) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final MinifyingOutputStream minifier = new MinifyingOutputStream(out);
+        minifier.write(view.getBytes(StandardCharsets.UTF_8));
+        minifier.finish();
+        return out.toString("UTF-8");
+    }
+}
@@ -20,7 +20,20 @@ package org.eclipse.krazo.core;
 
 import org.junit.Test;
 
+import jakarta.mvc.Models;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -56,4 +69,196 @@ public class ModelsImplTest {
         ModelsImpl models = new ModelsImpl();
         assertNotNull(models.iterator());
     }
+
+    /**
+     * Test asMap method returns a view and not a copy.
+     */
+    @Test
+    public void testAsMap() {
+        ModelsImpl models = new ModelsImpl();
+        Map<String, Object> map = models.asMap();
+        models.put("K", "V");
+        assertEquals("V", map.get("K"));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Test asMap method returns a map which cannot be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAsMapIsReadOnly() {
+        new ModelsImpl().asMap().put("K", "V");
+    }
+
+    /**
+     * Test lazy values are resolved on first access only.
+     */
+    @Test
+    public void testLazyModel() {
+        AtomicInteger calls = new AtomicInteger();
+        ModelsImpl models = new ModelsImpl();
+        models.put("K", LazyModel.of(() -> "V" + calls.incrementAndGet()));
+
+        Map<String, Object> map = models.asMap();
+        assertTrue(map.containsKey("K"));
+        assertEquals("K", map.keySet().iterator().next());
+        assertEquals(0, calls.get());
+
+        assertEquals("V1", models.get("K", String.class));
+        assertEquals("V1", map.get("K"));
+        assertEquals("V1", map.entrySet().iterator().next().getValue());
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Test completion stages are replaced by their results.
+     */
+    @Test
+    public void testAwaitPendingModels() throws Exception {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        ModelsImpl models = new ModelsImpl();
+        models.put("first", first);
+        models.put("second", CompletableFuture.supplyAsync(() -> "B"));
+        assertTrue(models.hasPendingModels());
+
+        first.complete("A");
+        models.awaitPendingModels(5, TimeUnit.SECONDS);
+        assertFalse(models.hasPendingModels());
+        assertEquals("A", models.get("first"));
+        assertEquals("B", models.get("second"));
+    }
+
+    /**
+     * Test waiting for completion stages times out.
+     */
+    @Test(expected = TimeoutException.class)
+    public void testAwaitPendingModelsTimeout() throws Exception {
+        ModelsImpl models = new ModelsImpl();
+        models.put("never", new CompletableFuture<>());
+        models.awaitPendingModels(10, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Test failed completion stages are reported.
+     */
+    @Test(expected = ExecutionException.class)
+    public void testAwaitPendingModelsFailure() throws Exception {
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException());
+        ModelsImpl models = new ModelsImpl();
+        models.put("failed", failed);
+        models.awaitPendingModels(0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Test shareWith keeps lazy and pending values unresolved and shares later models.
+     */
+    @Test
+    public void testShareWith() {
+        AtomicInteger calls = new AtomicInteger();
+        ModelsImpl models = new ModelsImpl();
+        models.put("lazy", LazyModel.of(calls::incrementAndGet));
+        models.put("pending", new CompletableFuture<>());
+
+        ModelsImpl shared = new ModelsImpl();
+        shared.put("replaced", "value");
+        models.shareWith(shared);
+        assertEquals(0, calls.get());
+        assertTrue(shared.hasPendingModels());
+        assertEquals(1, shared.get("lazy"));
+        assertNull(shared.get("replaced"));
+
+        shared.put("later", "value");
+        assertEquals("value", models.get("later"));
+        assertEquals("value", models.asMap().get("later"));
+    }
+
+    /**
+     * Test shareWith hands the entries to the contextual instance behind a client proxy.
+     */
+    @Test
+    public void testShareWithClientProxy() {
+        ModelsImpl models = new ModelsImpl();
+        models.put("name", "value");
+
+        ModelsImpl contextual = new ModelsImpl();
+        models.shareWith(new ClientProxy(contextual));
+        assertEquals("value", contextual.get("name"));
+
+        // capturing the models of a request goes through the proxy of the source
+        ModelsImpl captured = new ModelsImpl();
+        new ClientProxy(contextual).shareWith(captured);
+        contextual.put("later", "value");
+        assertEquals("value", captured.get("later"));
+    }
+
+    /**
+     * Test shared models may be modified by several threads at the same time.
+     */
+    @Test
+    public void testShareWithConcurrentPuts() throws Exception {
+        ModelsImpl models = new ModelsImpl();
+        ModelsImpl shared = new ModelsImpl();
+        models.shareWith(shared);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final ModelsImpl target = t % 2 == 0 ? models : shared;
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        target.put(thread + "-" + i, i);
+                        target.asMap().size();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(4000, models.asMap().size());
+        assertEquals(4000, shared.asMap().entrySet().size());
+    }
+
+    /**
+     * Delegates to a contextual instance like the client proxy of the request-scoped bean, its
+     * own state stays untouched.
+     */
+    private static class ClientProxy extends ModelsImpl {
+
+        private final ModelsImpl contextual;
+
+        ClientProxy(ModelsImpl contextual) {
+            this.contextual = contextual;
+        }
+
+        @Override
+        public Models put(String name, Object model) {
+            return contextual.put(name, model);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return contextual.get(name, type);
+        }
+
+        @Override
+        public Map<String, Object> asMap() {
+            return contextual.asMap();
+        }
+
+        @Override
+        public void shareWith(ModelsImpl target) {
+            contextual.shareWith(target);
+        }
+
+        @Override
+        protected void adopt(Entries entries) {
+            contextual.adopt(entries);
+        }
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.junit.Test;
+
+import jakarta.mvc.engine.ViewEngine;
+import jakarta.mvc.engine.ViewEngineContext;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.HttpHeaders;
+import java.lang.reflect.Field;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The JUnit tests for the RenderLimiter class.
+ */
+public class RenderLimiterTest {
+
+    private final ViewEngine engine = new TestViewEngine();
+
+    @Test
+    public void testUnlimited() throws Exception {
+        final Configuration config = createNiceMock(Configuration.class);
+        replay(config);
+
+        final RenderLimiter limiter = create(config);
+        final RenderLimiter.Bulkhead first = limiter.acquire(engine);
+        final RenderLimiter.Bulkhead second = limiter.acquire(engine);
+        assertEquals(0, first.getLimit());
+        assertEquals(2, first.getActive());
+        first.release();
+        second.release();
+        assertEquals(0, first.getActive());
+    }
+
+    @Test
+    public void testReject() throws Exception {
+        final Configuration config = createNiceMock(Configuration.class);
+        expect(config.getProperty(Properties.RENDER_CONCURRENCY)).andReturn(5).anyTimes();
+        expect(config.getProperty(Properties.RENDER_CONCURRENCY + '.' + TestViewEngine.class.getName())).andReturn(1).anyTimes();
+        expect(config.getProperty(Properties.RENDER_QUEUE_SIZE)).andReturn(0).anyTimes();
+        expect(config.getProperty(Properties.RENDER_QUEUE_TIMEOUT)).andReturn(2500).anyTimes();
+        replay(config);
+
+        final RenderLimiter limiter = create(config);
+        final RenderLimiter.Bulkhead bulkhead = limiter.acquire(engine);
+        assertEquals(1, bulkhead.getLimit());
+        try {
+            limiter.acquire(engine);
+            fail("Expected the render to be rejected");
+        } catch (ServiceUnavailableException e) {
+            assertEquals(503, e.getResponse().getStatus());
+            assertEquals("3", e.getResponse().getHeaderString(HttpHeaders.RETRY_AFTER));
+        }
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(1, bulkhead.getActive());
+
+        bulkhead.release();
+        limiter.acquire(engine).release();
+        assertEquals(1, limiter.getBulkheads().size());
+    }
+
+    @Test
+    public void testQueue() throws Exception {
+        final Configuration config = createNiceMock(Configuration.class);
+        expect(config.getProperty(Properties.RENDER_CONCURRENCY)).andReturn(1).anyTimes();
+        expect(config.getProperty(Properties.RENDER_QUEUE_TIMEOUT)).andReturn(5000).anyTimes();
+        replay(config);
+
+        final RenderLimiter limiter = create(config);
+        final RenderLimiter.Bulkhead bulkhead = limiter.acquire(engine);
+        final CompletableFuture<RenderLimiter.Bulkhead> waiting = CompletableFuture.supplyAsync(() -> limiter.acquire(engine));
+        while (bulkhead.getQueued() == 0) {
+            Thread.sleep(1);
+        }
+
+        // the queue holds as many requests as the limit
+        try {
+            limiter.acquire(engine);
+            fail("Expected the render to be rejected");
+        } catch (ServiceUnavailableException e) {
+            assertEquals(1, bulkhead.getRejected());
+        }
+
+        bulkhead.release();
+        waiting.get(5, TimeUnit.SECONDS).release();
+        assertEquals(0, bulkhead.getQueued());
+        assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        final Configuration config = createNiceMock(Configuration.class);
+        expect(config.getProperty(Properties.RENDER_CONCURRENCY)).andReturn(1).anyTimes();
+        replay(config);
+
+        final RenderLimiter limiter = create(config);
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final RenderLimiter.Render render = limiter.acquire(engine, 10, () -> timedOut.set(true));
+        try {
+            // the rendering thread is interrupted, so it must not block while waiting
+            while (!render.isTimedOut()) {
+                Thread.yield();
+            }
+            assertTrue(timedOut.get());
+
+            // the permit is released at the deadline, before the render returns
+            limiter.acquire(engine).release();
+        } finally {
+            render.release();
+            limiter.destroy();
+        }
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(0, limiter.getBulkheads().iterator().next().getActive());
+    }
+
+    @Test
+    public void testReleaseBeforeTimeout() throws Exception {
+        final Configuration config = createNiceMock(Configuration.class);
+        replay(config);
+
+        final RenderLimiter limiter = create(config);
+        final RenderLimiter.Render render = limiter.acquire(engine, 10, () -> fail("Unexpected timeout"));
+        render.release();
+        Thread.sleep(50);
+        limiter.destroy();
+        assertFalse(render.isTimedOut());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    static RenderLimiter create(Configuration config) throws Exception {
+        final RenderLimiter limiter = new RenderLimiter();
+        set(limiter, "config", config);
+        set(limiter, "messages", new Messages());
+        return limiter;
+    }
+
+    private static void set(RenderLimiter limiter, String name, Object value) throws Exception {
+        final Field field = RenderLimiter.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(limiter, value);
+    }
+
+    private static class TestViewEngine implements ViewEngine {
+
+        @Override
+        public boolean supports(String view) {
+            return true;
+        }
+
+        @Override
+        public void processView(ViewEngineContext context) {
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.junit.Test;
+
+import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.core.Configuration;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the StaticViews class.
+ */
+public class StaticViewsTest {
+
+    private static final String VIEW = "<html><body>Grüße</body></html>";
+
+    @Test
+    public void testIsStatic() throws Exception {
+        final Configuration config = createNiceMock(Configuration.class);
+        expect(config.getProperty(Properties.STATIC_VIEW_EXTENSIONS)).andReturn(".html, .htm").anyTimes();
+        replay(config);
+
+        assertTrue(StaticViews.isStatic(config, Controller.class.getMethod("about"), "about.jsp"));
+        assertTrue(StaticViews.isStatic(config, StaticController.class.getMethod("index"), "index.jsp"));
+        assertTrue(StaticViews.isStatic(config, null, "index.html"));
+        assertTrue(StaticViews.isStatic(config, null, "index.htm"));
+        assertFalse(StaticViews.isStatic(config, Controller.class.getMethod("index"), "index.jsp"));
+    }
+
+    @Test
+    public void testFind() throws Exception {
+        final ServletContext servletContext = createNiceMock(ServletContext.class);
+        expect(servletContext.getResourceAsStream("/WEB-INF/views/index.html"))
+            .andReturn(new ByteArrayInputStream(VIEW.getBytes(StandardCharsets.UTF_8))).once();
+        replay(servletContext);
+
+        final StaticViews views = StaticViews.get(servletContext);
+        final StaticViews.Content content = views.find("/WEB-INF/views/index.html");
+        assertArrayEquals(VIEW.getBytes(StandardCharsets.UTF_8), content.get(StandardCharsets.UTF_8).getBytes());
+        assertSame(content, views.find("/WEB-INF/views/index.html"));
+        assertNull(views.find("/WEB-INF/views/missing.html"));
+    }
+
+    @Test
+    public void testVariants() throws Exception {
+        final StaticViews.Content content = new StaticViews.Content(VIEW.getBytes(StandardCharsets.UTF_8), null);
+
+        final StaticViews.Variant latin1 = content.get(StandardCharsets.ISO_8859_1);
+        assertArrayEquals(VIEW.getBytes(StandardCharsets.ISO_8859_1), latin1.getBytes());
+
+        final StaticViews.Variant gzip = content.getGzip();
+        assertEquals(VIEW, new String(gunzip(gzip.getBytes()), StandardCharsets.UTF_8));
+        assertSame(gzip, content.getGzip());
+
+        assertTrue(gzip.getETag().isWeak());
+        assertNotEquals(content.get(StandardCharsets.UTF_8).getETag(), gzip.getETag());
+    }
+
+    @Test
+    public void testPrecompressed() {
+        final byte[] precompressed = {1, 2, 3};
+        final StaticViews.Content content = new StaticViews.Content(VIEW.getBytes(StandardCharsets.UTF_8), precompressed);
+        assertArrayEquals(precompressed, content.getGzip().getBytes());
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static class Controller {
+
+        @StaticView
+        public String about() {
+            return "about.jsp";
+        }
+
+        public String index() {
+            return "index.jsp";
+        }
+    }
+
+    @StaticView
+    public static class StaticController {
+
+        public String index() {
+            return "index.jsp";
+        }
+    }
+}
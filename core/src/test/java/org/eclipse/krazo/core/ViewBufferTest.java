@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the ViewBuffer class.
+ */
+public class ViewBufferTest {
+
+    @Test
+    public void testBuffer() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final ViewBuffer buffer = new ViewBuffer(target, 1024, false);
+
+        buffer.write('<');
+        buffer.write(bytes("html>"));
+        assertEquals(0, target.size());
+        assertEquals(6, buffer.size());
+        assertFalse(buffer.isOverflowed());
+
+        buffer.writeTo();
+        assertArrayEquals(bytes("<html>"), target.toByteArray());
+        buffer.release();
+    }
+
+    @Test
+    public void testGrow() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final ViewBuffer buffer = new ViewBuffer(target, 100000, false);
+
+        final byte[] chunk = new byte[3000];
+        for (int i = 0; i < 10; i++) {
+            buffer.write(chunk);
+        }
+        assertEquals(30000, buffer.size());
+        assertFalse(buffer.isOverflowed());
+
+        // grown arrays aren't returned to the pool
+        final int pooled = ViewBuffer.pooled();
+        buffer.release();
+        assertEquals(pooled, ViewBuffer.pooled());
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final ViewBuffer buffer = new ViewBuffer(target, 8, false);
+
+        buffer.write(bytes("<html>"));
+        buffer.write(bytes("<body>"));
+        assertTrue(buffer.isOverflowed());
+        buffer.write(bytes("</body></html>"));
+
+        // the buffered bytes are sent before the view is streamed
+        assertArrayEquals(bytes("<html><body></body></html>"), target.toByteArray());
+        buffer.release();
+    }
+
+    @Test
+    public void testETag() throws Exception {
+        final ViewBuffer first = new ViewBuffer(new ByteArrayOutputStream(), 1024, true);
+        first.write(bytes("Hello"));
+        final ViewBuffer second = new ViewBuffer(new ByteArrayOutputStream(), 1024, true);
+        second.write('H');
+        second.write(bytes("ello"));
+        final ViewBuffer other = new ViewBuffer(new ByteArrayOutputStream(), 1024, true);
+        other.write(bytes("World"));
+
+        assertTrue(first.getETag().isWeak());
+        assertEquals(first.getETag(), second.getETag());
+        assertNotEquals(first.getETag(), other.getETag());
+
+        first.release();
+        second.release();
+        other.release();
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final ViewBuffer buffer = new ViewBuffer(target, 1024, false);
+        buffer.write(bytes("discarded"));
+        buffer.release();
+        assertEquals(0, buffer.size());
+
+        // released buffers may be used again
+        buffer.write(bytes("sent"));
+        buffer.writeTo();
+        buffer.release();
+        assertArrayEquals(bytes("sent"), target.toByteArray());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
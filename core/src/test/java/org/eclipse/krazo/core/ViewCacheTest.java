@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.eclipse.krazo.Properties;
+import org.eclipse.krazo.util.LruCache;
+import org.junit.Test;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.mvc.security.CsrfProtected;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletRequestEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the ViewCache class.
+ */
+public class ViewCacheTest {
+
+    private static final byte[] CONTENT = "<html><body>Hello</body></html>".getBytes(StandardCharsets.UTF_8);
+
+    private static final Map<String, List<Object>> NO_HEADERS = Collections.emptyMap();
+
+    @Test
+    public void testGetCachedView() throws Exception {
+        assertNotNull(ViewCache.getCachedView(Controller.class.getMethod("fresh")));
+        assertNotNull(ViewCache.getCachedView(Controller.class.getMethod("varying")));
+        assertNull(ViewCache.getCachedView(Object.class.getMethod("toString")));
+    }
+
+    @Test
+    public void testLookupRefusesSecuredControllers() throws Exception {
+        final ViewCache cache = cache(null);
+        assertNotNull(cache.lookup(Controller.class.getMethod("fresh")));
+        assertNull(cache.lookup(Controller.class.getMethod("secured")));
+        assertNull(cache.lookup(SecuredController.class.getMethod("index")));
+        assertNull(cache.lookup(Object.class.getMethod("toString")));
+    }
+
+    @Test
+    public void testKey() throws Exception {
+        final CachedView cachedView = ViewCache.getCachedView(Controller.class.getMethod("varying"));
+        final String german = ViewCache.key(cachedView, request("/items", "gzip", "2"), Locale.GERMAN, null);
+
+        assertEquals(german, ViewCache.key(cachedView, request("/items", "gzip", "2"), Locale.GERMAN, null));
+        assertNotEquals(german, ViewCache.key(cachedView, request("/items", "gzip", "2"), Locale.ENGLISH, null));
+        assertNotEquals(german, ViewCache.key(cachedView, request("/items", "br", "2"), Locale.GERMAN, null));
+        assertNotEquals(german, ViewCache.key(cachedView, request("/items", "gzip", "3"), Locale.GERMAN, null));
+        assertNotEquals(german, ViewCache.key(cachedView, request("/other", "gzip", "2"), Locale.GERMAN, null));
+
+        assertNotEquals(german, ViewCache.key(cachedView, request("/items", "gzip", "2"), Locale.GERMAN, "gzip"));
+
+        // the request data isn't part of the key unless the view varies by it
+        final CachedView plain = ViewCache.getCachedView(Controller.class.getMethod("fresh"));
+        assertEquals(ViewCache.key(plain, request("/items", "gzip", "2"), Locale.GERMAN, null),
+            ViewCache.key(plain, request("/items", "br", "3"), Locale.ENGLISH, null));
+    }
+
+    @Test
+    public void testFreshEntry() throws Exception {
+        final ViewCache cache = cache(null);
+        cache.put("key", CONTENT, "text/html;charset=UTF-8", null, NO_HEADERS, ViewCache.getCachedView(Controller.class.getMethod("fresh")));
+
+        final ViewCache.Entry entry = cache.get("key");
+        assertNotNull(entry);
+        assertTrue(entry.isFresh(System.nanoTime()));
+
+        final Response response = entry.toResponse();
+        assertEquals(200, response.getStatus());
+        assertEquals("text/html;charset=UTF-8", response.getMediaType().toString());
+        assertArrayEquals(CONTENT, (byte[]) response.getEntity());
+
+        cache.clear();
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testCompressedEntry() throws Exception {
+        final ViewCache cache = cache(null);
+        cache.put("key", CONTENT, "text/html", "gzip", NO_HEADERS, ViewCache.getCachedView(Controller.class.getMethod("fresh")));
+
+        final Response response = cache.get("key").toResponse();
+        assertEquals("gzip", response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaderString(HttpHeaders.VARY));
+    }
+
+    @Test
+    public void testCachedHeaders() throws Exception {
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.add(HttpHeaders.CONTENT_TYPE, "text/html");
+        headers.add(HttpHeaders.SET_COOKIE, "session=secret");
+        headers.add(HttpHeaders.CACHE_CONTROL, "max-age=60");
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        headers.add("X-Frame-Options", "DENY");
+        headers.add("X-CSRF-TOKEN", "secret");
+
+        final ViewCache cache = cache(null);
+        cache.put("key", CONTENT, "text/html", "gzip", ViewCache.cacheableHeaders(headers),
+            ViewCache.getCachedView(Controller.class.getMethod("fresh")));
+
+        final Response response = cache.get("key").toResponse();
+        assertEquals("max-age=60", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertEquals("DENY", response.getHeaderString("X-Frame-Options"));
+        assertNull(response.getHeaderString("X-CSRF-TOKEN"));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaderString(HttpHeaders.VARY));
+        assertNull(response.getHeaderString(HttpHeaders.SET_COOKIE));
+        assertEquals("text/html", response.getMediaType().toString());
+    }
+
+    @Test
+    public void testIsCacheable() {
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.add(HttpHeaders.CACHE_CONTROL, "public, max-age=60");
+        assertTrue(ViewCache.isCacheable(headers));
+
+        headers.putSingle(HttpHeaders.CACHE_CONTROL, "private, max-age=60");
+        assertFalse(ViewCache.isCacheable(headers));
+
+        final CacheControl noStore = new CacheControl();
+        noStore.setNoStore(true);
+        headers.putSingle(HttpHeaders.CACHE_CONTROL, noStore);
+        assertFalse(ViewCache.isCacheable(headers));
+
+        headers.remove(HttpHeaders.CACHE_CONTROL);
+        headers.add(HttpHeaders.SET_COOKIE, "session=secret");
+        assertFalse(ViewCache.isCacheable(headers));
+    }
+
+    @Test
+    public void testStaleEntry() throws Exception {
+        final ViewCache cache = cache(null);
+        cache.put("key", CONTENT, "text/html", null, NO_HEADERS, ViewCache.getCachedView(Controller.class.getMethod("stale")));
+
+        final ViewCache.Entry entry = cache.get("key");
+        assertNotNull(entry);
+        assertFalse(entry.isFresh(System.nanoTime()));
+
+        // only a single request renders the view again
+        assertTrue(entry.tryRevalidate());
+        assertFalse(entry.tryRevalidate());
+        entry.revalidationFailed();
+        assertTrue(entry.tryRevalidate());
+    }
+
+    @Test
+    public void testExpiredEntry() throws Exception {
+        final ViewCache cache = cache(null);
+        cache.put("key", CONTENT, "text/html", null, NO_HEADERS, ViewCache.getCachedView(Controller.class.getMethod("expired")));
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testOffHeap() throws Exception {
+        final ViewCache cache = cache("true");
+        cache.put("key", CONTENT, "text/html", null, NO_HEADERS, ViewCache.getCachedView(Controller.class.getMethod("fresh")));
+
+        final Object entity = cache.get("key").toResponse().getEntity();
+        assertTrue(entity instanceof StreamingOutput);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) entity).write(out);
+        assertArrayEquals(CONTENT, out.toByteArray());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final ViewCache cache = cache(null);
+        final Field entries = ViewCache.class.getDeclaredField("entries");
+        entries.setAccessible(true);
+        entries.set(cache, new LruCache<String, ViewCache.Entry>(CONTENT.length * 2L, ViewCache.Entry::size));
+
+        final CachedView cachedView = ViewCache.getCachedView(Controller.class.getMethod("fresh"));
+        cache.put("first", CONTENT, "text/html", null, NO_HEADERS, cachedView);
+        cache.put("second", CONTENT, "text/html", null, NO_HEADERS, cachedView);
+        cache.put("third", CONTENT, "text/html", null, NO_HEADERS, cachedView);
+        assertNull(cache.get("first"));
+        assertNotNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+    }
+
+    @Test
+    public void testCoalescedRender() throws Exception {
+        final ViewCache cache = cache(null);
+        final CachedView cachedView = ViewCache.getCachedView(Controller.class.getMethod("fresh"));
+
+        final CompletableFuture<ViewCache.Entry> render = new CompletableFuture<>();
+        assertNull(cache.startRender("key", render));
+        final CompletableFuture<ViewCache.Entry> current = cache.startRender("key", new CompletableFuture<>());
+        assertSame(render, current);
+
+        final ViewCache.Capture capture = new ViewCache.Capture("key", cachedView, null, render);
+        cache.complete(capture, CONTENT, "text/html", null, NO_HEADERS);
+        assertArrayEquals(CONTENT, (byte[]) cache.awaitRender("key", current).toResponse().getEntity());
+
+        // the next miss starts a new render
+        assertNull(cache.startRender("key", new CompletableFuture<>()));
+    }
+
+    @Test
+    public void testAbortedRender() throws Exception {
+        final ViewCache cache = cache(null);
+        final CachedView cachedView = ViewCache.getCachedView(Controller.class.getMethod("fresh"));
+
+        final CompletableFuture<ViewCache.Entry> render = new CompletableFuture<>();
+        assertNull(cache.startRender("key", render));
+        cache.abort(new ViewCache.Capture("key", cachedView, null, render));
+
+        // waiting requests fall back to rendering the view on their own
+        assertNull(cache.awaitRender("key", render));
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testRequestListenerReleasesPendingRender() throws Exception {
+        final ViewCache cache = cache(null);
+        final CachedView cachedView = ViewCache.getCachedView(Controller.class.getMethod("fresh"));
+        final CompletableFuture<ViewCache.Entry> render = new CompletableFuture<>();
+        assertNull(cache.startRender("key", render));
+
+        final ServletRequest request = createNiceMock(ServletRequest.class);
+        expect(request.getAttribute(ViewCacheFilter.CAPTURE_ATTRIBUTE))
+            .andReturn(new ViewCache.Capture("key", cachedView, null, render));
+        replay(request);
+
+        final ViewCacheRequestListener listener = new ViewCacheRequestListener();
+        final Field field = ViewCacheRequestListener.class.getDeclaredField("viewCache");
+        field.setAccessible(true);
+        field.set(listener, cache);
+        listener.requestDestroyed(new ServletRequestEvent(createNiceMock(ServletContext.class), request));
+
+        assertTrue(render.isDone());
+        assertNull(cache.startRender("key", new CompletableFuture<>()));
+    }
+
+    @Test
+    public void testAbortAfterCompleteIsIgnored() throws Exception {
+        final ViewCache cache = cache(null);
+        final CachedView cachedView = ViewCache.getCachedView(Controller.class.getMethod("fresh"));
+        final CompletableFuture<ViewCache.Entry> render = new CompletableFuture<>();
+        final ViewCache.Capture capture = new ViewCache.Capture("key", cachedView, null, render);
+
+        cache.complete(capture, CONTENT, "text/html", null, NO_HEADERS);
+        cache.abort(capture);
+        assertNotNull(render.getNow(null));
+        assertNotNull(cache.get("key"));
+    }
+
+    @Test
+    public void testRenderTimeout() throws Exception {
+        final ViewCache cache = cache(null, 10L);
+        final CompletableFuture<ViewCache.Entry> render = new CompletableFuture<>();
+        assertNull(cache.startRender("key", render));
+
+        assertNull(cache.awaitRender("key", render));
+        assertNull(cache.startRender("key", new CompletableFuture<>()));
+    }
+
+    private static ViewCache cache(String offHeap) throws Exception {
+        return cache(offHeap, null);
+    }
+
+    private static ViewCache cache(String offHeap, Long waitTimeout) throws Exception {
+        final Configuration config = createNiceMock(Configuration.class);
+        expect(config.getProperty(Properties.VIEW_CACHE_OFF_HEAP)).andReturn(offHeap).anyTimes();
+        expect(config.getProperty(Properties.VIEW_CACHE_WAIT_TIMEOUT)).andReturn(waitTimeout).anyTimes();
+        replay(config);
+
+        final ViewCache cache = new ViewCache();
+        final Field field = ViewCache.class.getDeclaredField("config");
+        field.setAccessible(true);
+        field.set(cache, config);
+        cache.init();
+        return cache;
+    }
+
+    private static HttpServletRequest request(String uri, String encoding, String page) {
+        final HttpServletRequest request = createNiceMock(HttpServletRequest.class);
+        expect(request.getRequestURI()).andReturn(uri).anyTimes();
+        expect(request.getHeader("Accept-Encoding")).andReturn(encoding).anyTimes();
+        expect(request.getParameterValues("page")).andReturn(new String[] {page}).anyTimes();
+        replay(request);
+        return request;
+    }
+
+    @CachedView(ttl = 1, unit = TimeUnit.HOURS)
+    public static class Controller {
+
+        public String fresh() {
+            return "index.jsp";
+        }
+
+        @CachedView(ttl = 1, varyByLocale = true, varyByHeaders = "Accept-Encoding", varyByParams = "page")
+        public String varying() {
+            return "index.jsp";
+        }
+
+        @CachedView(ttl = 0, staleWhileRevalidate = 1, unit = TimeUnit.HOURS)
+        public String stale() {
+            return "index.jsp";
+        }
+
+        @CachedView(ttl = 0)
+        public String expired() {
+            return "index.jsp";
+        }
+
+        @RolesAllowed("admin")
+        public String secured() {
+            return "index.jsp";
+        }
+    }
+
+    @CachedView(ttl = 1)
+    @CsrfProtected
+    public static class SecuredController {
+
+        public String index() {
+            return "index.jsp";
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Configuration;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The JUnit tests for the ViewPrefixWriter class.
+ */
+public class ViewPrefixWriterTest {
+
+    private static final String PREFIX = "<html><head><link rel=\"stylesheet\" href=\"app.css\"></head>";
+
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    private ViewPrefixWriter writer;
+
+    private HttpServletRequest request;
+
+    private HttpServletResponse response;
+
+    private ServletContext servletContext;
+
+    private Configuration config;
+
+    @Before
+    public void setUp() throws Exception {
+        request = createNiceMock(HttpServletRequest.class);
+        response = createNiceMock(HttpServletResponse.class);
+        servletContext = createNiceMock(ServletContext.class);
+        config = createNiceMock(Configuration.class);
+
+        writer = new ViewPrefixWriter();
+        inject("request", request);
+        inject("response", response);
+        inject("config", config);
+        inject("messages", new Messages());
+
+        expect(request.getServletContext()).andReturn(servletContext).anyTimes();
+        expect(response.getOutputStream()).andReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                written.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        }).anyTimes();
+    }
+
+    @Test
+    public void testGetStreamedView() throws Exception {
+        assertNotNull(ViewPrefixWriter.getStreamedView(StreamedController.class.getMethod("withPrefix")));
+        assertNotNull(ViewPrefixWriter.getStreamedView(StreamedController.class.getMethod("withoutPrefix")));
+        assertNull(ViewPrefixWriter.getStreamedView(PlainController.class.getMethod("index")));
+    }
+
+    @Test
+    public void testWritePrefix() throws Exception {
+        expect(request.getMethod()).andReturn("GET").anyTimes();
+        expect(servletContext.getResourceAsStream("/WEB-INF/views/head.html"))
+            .andReturn(new ByteArrayInputStream(PREFIX.getBytes(StandardCharsets.UTF_8)));
+        replay(request, response, servletContext, config);
+
+        writer.writePrefix(StreamedController.class.getMethod("withPrefix"));
+        assertEquals(PREFIX, new String(written.toByteArray(), StandardCharsets.UTF_8));
+
+        // the content of the prefix is only read once
+        written.reset();
+        writer.writePrefix(StreamedController.class.getMethod("withPrefix"));
+        assertEquals(PREFIX, new String(written.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWritePrefixWithProducedCharset() throws Exception {
+        final String prefix = "<html><head><title>Grüße</title></head>";
+        expect(request.getMethod()).andReturn("GET").anyTimes();
+        expect(servletContext.getResourceAsStream("/WEB-INF/views/head.html"))
+            .andReturn(new ByteArrayInputStream(prefix.getBytes(StandardCharsets.UTF_8)));
+        response.setContentType("text/html;charset=ISO-8859-1");
+        replay(request, response, servletContext, config);
+
+        writer.writePrefix(StreamedController.class.getMethod("latin1"));
+        assertEquals(prefix, new String(written.toByteArray(), StandardCharsets.ISO_8859_1));
+        verify(response);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAmbiguousMediaType() throws Exception {
+        expect(request.getMethod()).andReturn("GET").anyTimes();
+        replay(request, response, servletContext, config);
+
+        writer.writePrefix(StreamedController.class.getMethod("ambiguous"));
+    }
+
+    @Test
+    public void testNoPrefixForPost() throws Exception {
+        expect(request.getMethod()).andReturn("POST").anyTimes();
+        replay(request, response, servletContext, config);
+
+        writer.writePrefix(StreamedController.class.getMethod("withPrefix"));
+        assertEquals(0, written.size());
+    }
+
+    @Test
+    public void testNoPrefixDeclared() throws Exception {
+        expect(request.getMethod()).andReturn("GET").anyTimes();
+        replay(request, response, servletContext, config);
+
+        writer.writePrefix(StreamedController.class.getMethod("withoutPrefix"));
+        writer.writePrefix(PlainController.class.getMethod("index"));
+        assertEquals(0, written.size());
+    }
+
+    private void inject(String name, Object value) throws Exception {
+        final Field field = ViewPrefixWriter.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(writer, value);
+    }
+
+    @StreamedView
+    public static class StreamedController {
+
+        @StreamedView(prefix = "head.html")
+        public String withPrefix() {
+            return "index.jsp";
+        }
+
+        public String withoutPrefix() {
+            return "index.jsp";
+        }
+
+        @StreamedView(prefix = "head.html")
+        @Produces("text/html;charset=ISO-8859-1")
+        public String latin1() {
+            return "index.jsp";
+        }
+
+        @StreamedView(prefix = "head.html")
+        @Produces({"text/html", "application/xhtml+xml"})
+        public String ambiguous() {
+            return "index.jsp";
+        }
+    }
+
+    public static class PlainController {
+
+        public String index() {
+            return "index.jsp";
+        }
+    }
+}
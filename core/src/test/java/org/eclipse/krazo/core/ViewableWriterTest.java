@@ -19,7 +19,9 @@
 package org.eclipse.krazo.core;
 
 import org.easymock.EasyMock;
+import org.easymock.IAnswer;
 import org.eclipse.krazo.MvcContextImpl;
+import org.eclipse.krazo.Properties;
 import org.eclipse.krazo.engine.ViewEngineFinder;
 import org.eclipse.krazo.lifecycle.EventDispatcher;
 import org.junit.Test;
@@ -30,22 +32,40 @@ import jakarta.ws.rs.core.Configuration;
 import org.eclipse.krazo.engine.Viewable;
 import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
+import jakarta.mvc.engine.ViewEngineException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.MultivaluedHashMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * The JUnit tests for the ViewableWriter class.
@@ -55,6 +75,11 @@ import static org.junit.Assert.assertTrue;
 @SuppressWarnings("unchecked")
 public class ViewableWriterTest {
 
+    private static final IAnswer<Object> HELLO = () -> {
+        ((ViewEngineContext) getCurrentArguments()[0]).getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+        return null;
+    };
+
     /**
      * Test isWriteable method.
      */
@@ -116,11 +141,15 @@ public class ViewableWriterTest {
         responseField.setAccessible(true);
         responseField.set(writer, response);
 
-        Configuration config = EasyMock.createStrictMock(Configuration.class);
+        Configuration config = EasyMock.createNiceMock(Configuration.class);
         Field configField = writer.getClass().getDeclaredField("config");
         configField.setAccessible(true);
         configField.set(writer, config);
 
+        Field renderLimiterField = writer.getClass().getDeclaredField("renderLimiter");
+        renderLimiterField.setAccessible(true);
+        renderLimiterField.set(writer, RenderLimiterTest.create(config));
+
         MultivaluedHashMap map = new MultivaluedHashMap();
         ArrayList<MediaType> contentTypes = new ArrayList<>();
         contentTypes.add(MediaType.TEXT_HTML_TYPE);
@@ -132,8 +161,229 @@ public class ViewableWriterTest {
         expect(finder.find(anyObject())).andReturn(viewEngine);
         viewEngine.processView((ViewEngineContext) anyObject());
 
-        replay(finder, request, viewEngine, response);
+        replay(finder, request, viewEngine, response, config);
         writer.writeTo(viewable, null, null, new Annotation[] {}, MediaType.TEXT_HTML_TYPE, map, null);
         verify(finder, request, viewEngine, response);
     }
+
+    /**
+     * Test the weak comparison of If-None-Match headers.
+     */
+    @Test
+    public void testMatches() {
+        EntityTag etag = new EntityTag("a-1", true);
+        assertTrue(ViewableWriter.matches("W/\"a-1\"", etag));
+        assertTrue(ViewableWriter.matches("\"b-2\", \"a-1\"", etag));
+        assertTrue(ViewableWriter.matches("*", etag));
+        assertFalse(ViewableWriter.matches("W/\"a-2\"", etag));
+        assertFalse(ViewableWriter.matches(null, etag));
+    }
+
+    /**
+     * Test writeTo method with ETags enabled.
+     *
+     * @throws Exception when a serious error occurs.
+     */
+    @Test
+    public void testWriteToWithETag() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final MultivaluedHashMap<String, Object> headers = write(Properties.VIEW_ETAG, null, out, HELLO);
+
+        assertEquals("Hello", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        final EntityTag etag = (EntityTag) headers.getFirst(HttpHeaders.ETAG);
+        assertTrue(etag.isWeak());
+        assertTrue(etag.getValue().startsWith("5-"));
+
+        // the same view is not sent again
+        try {
+            write(Properties.VIEW_ETAG, "W/\"" + etag.getValue() + "\"", new ByteArrayOutputStream(), HELLO);
+            fail("Expected 304 Not Modified");
+        } catch (WebApplicationException e) {
+            assertEquals(304, e.getResponse().getStatus());
+            assertEquals(etag, e.getResponse().getEntityTag());
+        }
+    }
+
+    /**
+     * Test writeTo method with buffered views.
+     *
+     * @throws Exception when a serious error occurs.
+     */
+    @Test
+    public void testWriteToBuffered() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final MultivaluedHashMap<String, Object> headers = write(Properties.VIEW_BUFFER, null, out, HELLO);
+
+        assertEquals("Hello", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(5, headers.getFirst(HttpHeaders.CONTENT_LENGTH));
+        assertNull(headers.getFirst(HttpHeaders.ETAG));
+    }
+
+    /**
+     * Test that a failing buffered view is replaced with the error view.
+     *
+     * @throws Exception when a serious error occurs.
+     */
+    @Test
+    public void testWriteToErrorView() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(Properties.VIEW_BUFFER, null, out, () -> {
+                HELLO.answer();
+                throw new ViewEngineException("Failed");
+            });
+            fail("Expected the error view");
+        } catch (WebApplicationException e) {
+            assertEquals(500, e.getResponse().getStatus());
+            assertEquals("error.jsp", ((Viewable) e.getResponse().getEntity()).getView());
+        }
+        assertEquals(0, out.size());
+    }
+
+    /**
+     * Test that views taking longer than the render timeout are aborted.
+     *
+     * @throws Exception when a serious error occurs.
+     */
+    @Test
+    public void testWriteToRenderTimeout() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(Properties.RENDER_TIMEOUT, 10, null, out, () -> {
+                Thread.sleep(50);
+                try {
+                    HELLO.answer();
+                } catch (IOException e) {
+                    throw new ViewEngineException(e);
+                }
+                return null;
+            });
+            fail("Expected the render to time out");
+        } catch (ServiceUnavailableException e) {
+            assertEquals(503, e.getResponse().getStatus());
+        }
+        assertEquals(0, out.size());
+    }
+
+    /**
+     * Test that a view engine which does not write anything after the render timeout still times out.
+     *
+     * @throws Exception when a serious error occurs.
+     */
+    @Test
+    public void testWriteToRenderTimeoutWithoutWrites() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(Properties.RENDER_TIMEOUT, 10, null, out, () -> {
+                final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+                while (System.nanoTime() < end) {
+                    Thread.yield();
+                }
+                return null;
+            });
+            fail("Expected the render to time out");
+        } catch (ServiceUnavailableException e) {
+            assertEquals(503, e.getResponse().getStatus());
+            assertNull(e.getCause());
+        }
+        assertEquals(0, out.size());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    /**
+     * Test that compression is only negotiated if no prefix of a streamed view has been sent.
+     *
+     * @throws Exception when a serious error occurs.
+     */
+    @Test
+    public void testWriteToStreamedViewWithCompression() throws Exception {
+        final byte[] body = new byte[4096];
+        Arrays.fill(body, (byte) 'a');
+        final IAnswer<Object> view = () -> {
+            ((ViewEngineContext) getCurrentArguments()[0]).getOutputStream().write(body);
+            return null;
+        };
+
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        final MultivaluedHashMap<String, Object> headers = write(Properties.VIEW_COMPRESSION, true, null, compressed, view, null);
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(compressed.size() < body.length);
+
+        final ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        final MultivaluedHashMap<String, Object> streamedHeaders = write(Properties.VIEW_COMPRESSION, true, null, streamed,
+            view, StreamedController.class.getMethod("index"));
+        assertNull(streamedHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(streamedHeaders.getFirst(HttpHeaders.VARY));
+        assertArrayEquals(body, streamed.toByteArray());
+    }
+
+    private static MultivaluedHashMap<String, Object> write(String property, String ifNoneMatch, OutputStream out,
+                                                            IAnswer<Object> view) throws Exception {
+        return write(property, true, ifNoneMatch, out, view);
+    }
+
+    private static MultivaluedHashMap<String, Object> write(String property, Object value, String ifNoneMatch,
+                                                            OutputStream out, IAnswer<Object> view) throws Exception {
+        return write(property, value, ifNoneMatch, out, view, null);
+    }
+
+    private static MultivaluedHashMap<String, Object> write(String property, Object value, String ifNoneMatch,
+                                                            OutputStream out, IAnswer<Object> view,
+                                                            Method resourceMethod) throws Exception {
+        ViewableWriter writer = new ViewableWriter();
+        set(writer, "mvc", new MvcContextImpl());
+        set(writer, "eventDispatcher", EasyMock.createNiceMock(EventDispatcher.class));
+
+        ViewEngineFinder finder = EasyMock.createNiceMock(ViewEngineFinder.class);
+        ViewEngine viewEngine = EasyMock.createNiceMock(ViewEngine.class);
+        expect(finder.find(anyObject())).andReturn(viewEngine);
+        viewEngine.processView(anyObject());
+        expectLastCall().andAnswer(view);
+        set(writer, "engineFinder", finder);
+
+        HttpServletRequest request = EasyMock.createNiceMock(HttpServletRequest.class);
+        expect(request.getMethod()).andReturn("GET").anyTimes();
+        expect(request.getHeader(HttpHeaders.IF_NONE_MATCH)).andReturn(ifNoneMatch).anyTimes();
+        expect(request.getHeader(HttpHeaders.ACCEPT_ENCODING)).andReturn("gzip").anyTimes();
+        set(writer, "injectedRequest", request);
+
+        // the prefix of a streamed view has been sent before, which commits the response
+        HttpServletResponse response = EasyMock.createNiceMock(HttpServletResponse.class);
+        expect(response.getCharacterEncoding()).andReturn("UTF-8").anyTimes();
+        expect(response.isCommitted()).andReturn(resourceMethod != null).anyTimes();
+        set(writer, "injectedResponse", response);
+
+        ResourceInfo resourceInfo = EasyMock.createNiceMock(ResourceInfo.class);
+        expect(resourceInfo.getResourceMethod()).andReturn(resourceMethod).anyTimes();
+        set(writer, "resourceInfo", resourceInfo);
+
+        Configuration config = EasyMock.createNiceMock(Configuration.class);
+        expect(config.getProperty(property)).andReturn(value).anyTimes();
+        expect(config.getProperty(Properties.ERROR_VIEW)).andReturn("error.jsp").anyTimes();
+        set(writer, "config", config);
+        set(writer, "renderLimiter", RenderLimiterTest.create(config));
+        set(writer, "messages", new Messages());
+
+        replay(finder, viewEngine, request, response, resourceInfo, config);
+
+        Viewable viewable = new Viewable("myview");
+        viewable.setModels(new ModelsImpl());
+        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        writer.writeTo(viewable, null, null, new Annotation[] {}, MediaType.TEXT_HTML_TYPE, headers, out);
+        return headers;
+    }
+
+    private static void set(ViewableWriter writer, String name, Object value) throws Exception {
+        Field field = ViewableWriter.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(writer, value);
+    }
+
+    public static class StreamedController {
+
+        @StreamedView(prefix = "/WEB-INF/views/head.html")
+        public String index() {
+            return "index.jsp";
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.engine;
+
+import org.junit.Test;
+
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRegistration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * The JUnit tests for the ExtensionDispatchers class.
+ */
+public class ExtensionDispatchersTest {
+
+    @Test
+    public void findsServletMappedToAllExtensions() {
+
+        ServletRegistration jsp = createMock(ServletRegistration.class);
+        expect(jsp.getMappings()).andReturn(Arrays.asList("*.jsp", "*.jspx"));
+        ServletRegistration faces = createMock(ServletRegistration.class);
+        expect(faces.getMappings()).andReturn(Arrays.asList("/faces/*", "*.xhtml"));
+        ServletRegistration liberty = createMock(ServletRegistration.class);
+        expect(liberty.getMappings()).andReturn(null);
+
+        Map<String, ServletRegistration> registrations = new LinkedHashMap<>();
+        registrations.put("jsp", jsp);
+        registrations.put("faces", faces);
+        registrations.put("liberty", liberty);
+
+        RequestDispatcher jspDispatcher = createMock(RequestDispatcher.class);
+        RequestDispatcher facesDispatcher = createMock(RequestDispatcher.class);
+
+        ServletContext servletContext = createMock(ServletContext.class);
+        expect(servletContext.getServletRegistrations()).andReturn((Map) registrations);
+        expect(servletContext.getNamedDispatcher(eq("jsp"))).andReturn(jspDispatcher);
+        expect(servletContext.getNamedDispatcher(eq("faces"))).andReturn(facesDispatcher);
+        servletContext.setAttribute(eq(ExtensionDispatchers.class.getName()), anyObject());
+        expectLastCall();
+
+        replay(jsp, faces, liberty, servletContext);
+
+        ExtensionDispatchers dispatchers = ExtensionDispatchers.init(servletContext);
+        assertSame(jspDispatcher, dispatchers.find("*.jsp", "*.jspx"));
+        assertSame(facesDispatcher, dispatchers.find("*.xhtml"));
+        assertNull(dispatchers.find("*.jsp", "*.xhtml"));
+        assertNull(dispatchers.find("*.ftl"));
+
+        verify(jsp, faces, liberty, servletContext);
+    }
+
+    @Test
+    public void usesDispatchersStoredInContext() {
+
+        ServletContext servletContext = createMock(ServletContext.class);
+        expect(servletContext.getServletRegistrations()).andReturn((Map) new LinkedHashMap<>());
+        servletContext.setAttribute(eq(ExtensionDispatchers.class.getName()), anyObject());
+        replay(servletContext);
+        ExtensionDispatchers dispatchers = ExtensionDispatchers.init(servletContext);
+        verify(servletContext);
+
+        ServletContext initialized = createMock(ServletContext.class);
+        expect(initialized.getAttribute(ExtensionDispatchers.class.getName())).andReturn(dispatchers);
+        replay(initialized);
+        assertSame(dispatchers, ExtensionDispatchers.get(initialized));
+        verify(initialized);
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.engine;
+
+import org.eclipse.krazo.core.LazyModel;
+import org.eclipse.krazo.core.ModelsImpl;
+import org.junit.Test;
+
+import jakarta.mvc.Models;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * The JUnit tests for the ModelsRequestWrapper class.
+ */
+public class ModelsRequestWrapperTest {
+
+    @Test
+    public void modelsTakePrecedence() {
+        Models models = new ModelsImpl().put("greeting", "Hello");
+
+        HttpServletRequest request = createMock(HttpServletRequest.class);
+        expect(request.getAttribute("name")).andReturn("Duke");
+        replay(request);
+
+        ModelsRequestWrapper wrapper = new ModelsRequestWrapper(request, models);
+        assertEquals("Hello", wrapper.getAttribute("greeting"));
+        assertEquals("Duke", wrapper.getAttribute("name"));
+        verify(request);
+    }
+
+    @Test
+    public void attributesSetByViewShadowModels() {
+        Models models = new ModelsImpl().put("greeting", "Hello");
+
+        HttpServletRequest request = createMock(HttpServletRequest.class);
+        request.setAttribute("greeting", "Hi");
+        expect(request.getAttribute("greeting")).andReturn("Hi");
+        replay(request);
+
+        ModelsRequestWrapper wrapper = new ModelsRequestWrapper(request, models);
+        wrapper.setAttribute("greeting", "Hi");
+        assertEquals("Hi", wrapper.getAttribute("greeting"));
+        verify(request);
+    }
+
+    @Test
+    public void attributeNamesContainModels() {
+        Models models = new ModelsImpl().put("greeting", "Hello").put("name", "Duke");
+
+        HttpServletRequest request = createMock(HttpServletRequest.class);
+        expect(request.getAttributeNames()).andReturn(Collections.enumeration(Arrays.asList("name", "locale")));
+        replay(request);
+
+        ModelsRequestWrapper wrapper = new ModelsRequestWrapper(request, models);
+        assertEquals(Arrays.asList("greeting", "name", "locale"), Collections.list(wrapper.getAttributeNames()));
+        verify(request);
+    }
+
+    @Test
+    public void attributeNamesDontResolveLazyModels() {
+        Models models = new ModelsImpl().put("orders", LazyModel.of(() -> {
+            fail("Lazy model must not be resolved");
+            return null;
+        }));
+
+        HttpServletRequest request = createMock(HttpServletRequest.class);
+        expect(request.getAttributeNames()).andReturn(Collections.emptyEnumeration());
+        replay(request);
+
+        ModelsRequestWrapper wrapper = new ModelsRequestWrapper(request, models);
+        assertEquals(Collections.singletonList("orders"), Collections.list(wrapper.getAttributeNames()));
+        verify(request);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the OverlayMap class.
+ */
+public class OverlayMapTest {
+
+    @Test
+    public void overlayShadowsBase() {
+        Map<String, Object> base = new LinkedHashMap<>();
+        base.put("request", "model");
+        base.put("name", "Duke");
+
+        Map<String, Object> map = OverlayMap.of(base, "request", "request");
+        assertEquals("request", map.get("request"));
+        assertEquals("Duke", map.get("name"));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void iteratesOverlayFirst() {
+        Map<String, Object> base = new LinkedHashMap<>();
+        base.put("a", 1);
+        base.put("b", 2);
+
+        List<String> keys = new ArrayList<>(OverlayMap.of(base, "request", "request").keySet());
+        assertEquals(Arrays.asList("request", "a", "b"), keys);
+    }
+
+    @Test
+    public void reflectsChangesOfBase() {
+        Map<String, Object> base = new LinkedHashMap<>();
+        Map<String, Object> map = OverlayMap.of(base, "request", "request");
+        assertFalse(map.containsKey("name"));
+
+        base.put("name", "Duke");
+        assertTrue(map.containsKey("name"));
+        assertEquals(2, map.size());
+        assertEquals(map, new LinkedHashMap<>(map));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void rejectsPut() {
+        OverlayMap.of(new LinkedHashMap<>(), "request", "request").put("name", "Duke");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void rejectsEntryUpdates() {
+        OverlayMap.of(new LinkedHashMap<>(), "request", "request").entrySet().iterator().next().setValue("x");
+    }
+
+}
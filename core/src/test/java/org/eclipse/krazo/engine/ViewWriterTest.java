@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the ViewWriter class.
+ */
+public class ViewWriterTest {
+
+    private static final String TEXT = "<p>Grüße, ½ € 😀 ok</p>";
+
+    @Test
+    public void testCreate() {
+        assertTrue(ViewWriter.create(new ByteArrayOutputStream(), StandardCharsets.UTF_8) instanceof ViewWriter);
+        assertTrue(ViewWriter.create(new ByteArrayOutputStream(), StandardCharsets.ISO_8859_1) instanceof ViewWriter);
+        assertFalse(ViewWriter.create(new ByteArrayOutputStream(), StandardCharsets.UTF_16) instanceof ViewWriter);
+    }
+
+    @Test
+    public void testEncode() throws IOException {
+        for (Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1}) {
+            assertEncoded(TEXT, charset);
+            assertEncoded("lone \uD83D surrogates \uDE00 and \uD83D", charset);
+            final StringBuilder large = new StringBuilder();
+            while (large.length() < 20000) {
+                large.append(TEXT);
+            }
+            assertEncoded(large.toString(), charset);
+        }
+    }
+
+    @Test
+    public void testSplitWrites() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = ViewWriter.create(out, StandardCharsets.UTF_8)) {
+            for (char c : TEXT.toCharArray()) {
+                writer.write(c);
+            }
+            writer.write(TEXT.toCharArray(), 0, TEXT.length());
+        }
+        assertArrayEquals((TEXT + TEXT).getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void testClosed() throws IOException {
+        final Writer writer = ViewWriter.create(new ByteArrayOutputStream(), StandardCharsets.UTF_8);
+        writer.close();
+        writer.write("a");
+    }
+
+    private static void assertEncoded(String text, Charset charset) throws IOException {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(expected, charset)) {
+            writer.write(text);
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = ViewWriter.create(out, charset)) {
+            writer.write(text);
+        }
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+}
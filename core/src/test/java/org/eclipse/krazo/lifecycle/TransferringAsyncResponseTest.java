@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.lifecycle;
+
+import org.junit.Test;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the TransferringAsyncResponse class.
+ */
+public class TransferringAsyncResponseTest {
+
+    @Test
+    public void resumeIsDeferredUntilControllerReturned() {
+        AsyncResponse delegate = createMock(AsyncResponse.class);
+        expect(delegate.isSuspended()).andReturn(true);
+        replay(delegate);
+
+        TransferringAsyncResponse response = new TransferringAsyncResponse(delegate);
+        assertTrue(response.resume("view.jsp"));
+        verify(delegate);
+    }
+
+    @Test
+    public void resumesDirectlyWithoutState() {
+        AsyncResponse delegate = createMock(AsyncResponse.class);
+        expect(delegate.isSuspended()).andReturn(true);
+        expect(delegate.resume("view.jsp")).andReturn(true);
+        replay(delegate);
+
+        TransferringAsyncResponse response = new TransferringAsyncResponse(delegate);
+        response.resume("view.jsp");
+        response.transfer(null);
+        verify(delegate);
+    }
+
+    @Test
+    public void resumesOnExecutor() {
+        AsyncResponse delegate = createMock(AsyncResponse.class);
+        expect(delegate.isSuspended()).andReturn(true);
+        expect(delegate.resume("view.jsp")).andReturn(true);
+        replay(delegate);
+
+        List<Runnable> tasks = new ArrayList<>();
+        TransferringAsyncResponse response = new TransferringAsyncResponse(delegate, tasks::add);
+        response.resume("view.jsp");
+        response.transfer(null);
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        verify(delegate);
+    }
+
+}
@@ -20,8 +20,12 @@ package org.eclipse.krazo.security;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  * Test for EncodersImpl.
@@ -49,4 +53,25 @@ public class EncodersImplTest {
                      encoders.html("<html><div id=\"foo\">&&</div></html>"));
         assertNull(encoders.html(null));
     }
+
+    @Test
+    public void testEncoderUnchanged() {
+        final String s = "Hello World, Grüße 😀";
+        assertSame(s, encoders.js(s));
+        assertSame(s, encoders.html(s));
+        assertEquals("&lt;b&gt; Grüße &lt;/b&gt;", encoders.html("<b> Grüße </b>"));
+    }
+
+    @Test
+    public void testEncoderAppendable() throws IOException {
+        final StringWriter writer = new StringWriter();
+        encoders.html("<a href=\"/\">Home</a>", writer);
+        encoders.html(null, writer);
+        encoders.js("'Hello'\n", writer);
+        assertEquals("&lt;a href=&#34;/&#34;&gt;Home&lt;/a&gt;\\x27Hello\\x27\\n", writer.toString());
+
+        final StringBuilder sb = new StringBuilder("x");
+        encoders.html(new StringBuilder("a & b"), sb);
+        assertEquals("xa &amp; b", sb.toString());
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the DirectoryWatcher class.
+ */
+public class DirectoryWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void notifiesAboutChangedFiles() throws Exception {
+        BlockingQueue<Path> changes = new LinkedBlockingQueue<>();
+        Path directory = folder.getRoot().toPath();
+
+        try (DirectoryWatcher watcher = new DirectoryWatcher("test-watcher", changes::add)) {
+            watcher.register(directory);
+            watcher.register(directory);
+            assertTrue(watcher.isWatching(directory));
+
+            Path template = directory.resolve("index.ftl");
+            Files.write(template, "Hello".getBytes(StandardCharsets.UTF_8));
+
+            Path changed = changes.poll(30, TimeUnit.SECONDS);
+            assertNotNull(changed);
+            assertTrue(changed.equals(template) || changed.equals(directory));
+        }
+    }
+
+    @Test
+    public void ignoresRegistrationAfterClose() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        DirectoryWatcher watcher = new DirectoryWatcher("test-watcher", path -> { });
+        watcher.close();
+        watcher.register(directory);
+        assertFalse(watcher.isWatching(directory));
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JUnit tests for the ExecutorUtils class.
+ */
+public class ExecutorUtilsTest {
+
+    @Test
+    public void disabledExecutor() {
+        assertNull(ExecutorUtils.newExecutor("test", null));
+        assertNull(ExecutorUtils.newExecutor("test", 0));
+        assertNull(ExecutorUtils.newExecutor("test", "-1"));
+    }
+
+    @Test
+    public void boundedExecutor() throws Exception {
+        ExecutorService executor = ExecutorUtils.newExecutor("test", "2");
+        assertNotNull(executor);
+        String name = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        assertTrue(name.startsWith("test-"));
+        ExecutorUtils.shutdown(executor);
+        assertTrue(executor.isShutdown());
+    }
+
+    @Test
+    public void virtualExecutor() throws Exception {
+        ExecutorService executor = ExecutorUtils.newExecutor("test", "virtual");
+        assertNotNull(executor);
+        assertEquals("done", executor.submit(() -> "done").get(5, TimeUnit.SECONDS));
+        ExecutorUtils.shutdown(executor);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidExecutor() {
+        ExecutorUtils.newExecutor("test", "many");
+    }
+
+}
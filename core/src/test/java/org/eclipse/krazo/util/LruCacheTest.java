@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The JUnit tests for the LruCache class.
+ */
+public class LruCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsedEntries() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertEquals("A", cache.get("a"));
+        cache.put("c", "C");
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void evictsByWeight() {
+        LruCache<String, byte[]> cache = new LruCache<>(10, value -> value.length);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.put("c", new byte[4]);
+        assertNull(cache.get("a"));
+        assertEquals(8, cache.weight());
+        cache.put("b", new byte[1]);
+        assertEquals(5, cache.weight());
+    }
+
+    @Test
+    public void skipsValuesHeavierThanMaximum() {
+        LruCache<String, byte[]> cache = new LruCache<>(10, value -> value.length);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[11]);
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void removesEntries() {
+        LruCache<String, String> cache = new LruCache<>(10);
+        cache.put("/a/1", "1");
+        cache.put("/a/2", "2");
+        cache.put("/b/1", "3");
+        cache.removeIf(key -> key.startsWith("/a/"));
+        assertEquals(1, cache.size());
+        cache.remove("/b/1");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+    }
+
+}
@@ -48,4 +48,38 @@ public class PropertyUtilsTest {
 		verify(config);
 	}
 
+	@Test
+	public void getLongProperty() {
+		Configuration config = EasyMock.createStrictMock(Configuration.class);
+		expect(config.getProperty(eq("delay"))).andReturn(500);
+		expect(config.getProperty(eq("interval"))).andReturn(" 1000 ");
+		expect(config.getProperty(eq("timeout"))).andReturn(null);
+		replay(config);
+		assertThat(PropertyUtils.getLongProperty(config, "delay", 10L), is(500L));
+		assertThat(PropertyUtils.getLongProperty(config, "interval", 10L), is(1000L));
+		assertThat(PropertyUtils.getLongProperty(config, "timeout", 10L), is(10L));
+		verify(config);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getLongPropertyInvalid() {
+		Configuration config = EasyMock.createStrictMock(Configuration.class);
+		expect(config.getProperty(eq("delay"))).andReturn("soon");
+		replay(config);
+		PropertyUtils.getLongProperty(config, "delay", 10L);
+	}
+
+	@Test
+	public void getBooleanProperty() {
+		Configuration config = EasyMock.createStrictMock(Configuration.class);
+		expect(config.getProperty(eq("caching"))).andReturn(Boolean.TRUE);
+		expect(config.getProperty(eq("watch"))).andReturn("true");
+		expect(config.getProperty(eq("debug"))).andReturn(null);
+		replay(config);
+		assertThat(PropertyUtils.getBooleanProperty(config, "caching", false), is(true));
+		assertThat(PropertyUtils.getBooleanProperty(config, "watch", false), is(true));
+		assertThat(PropertyUtils.getBooleanProperty(config, "debug", false), is(false));
+		verify(config);
+	}
+
 }
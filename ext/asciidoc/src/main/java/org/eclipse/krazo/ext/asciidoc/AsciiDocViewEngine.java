@@ -22,7 +22,11 @@ import org.asciidoctor.Asciidoctor;
 import org.asciidoctor.Asciidoctor.Factory;
 import org.asciidoctor.Options;
 import org.eclipse.krazo.engine.ViewEngineBase;
+import org.eclipse.krazo.jaxrs.JaxRsContext;
+import org.eclipse.krazo.util.LruCache;
+import org.eclipse.krazo.util.PropertyUtils;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -30,17 +34,32 @@ import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
 import jakarta.mvc.engine.ViewEngineException;
 import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.core.Configuration;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Class AsciiDocViewEngine.
+ * <p>Class AsciiDocViewEngine.</p>
+ *
+ * <p>Converting a document is expensive, so the engine keeps a cache of rendered views. Entries
+ * are keyed by the resolved view, the response charset and the model attributes passed to
+ * Asciidoctor. Entries are invalidated if the modification time of the document changes. Views
+ * are only cached if all model attributes are plain values like strings, numbers, booleans or
+ * enums. The {@code mvc} context object is not considered part of the key. The size of the
+ * cache in bytes can be configured using {@link #CACHE_SIZE}. The modification time is only
+ * checked once per {@link #CHECK_INTERVAL}.</p>
  *
  * @author Ricardo Arguello
  */
@@ -48,15 +67,52 @@ import java.util.HashMap;
 @Priority(ViewEngine.PRIORITY_FRAMEWORK)
 public class AsciiDocViewEngine extends ViewEngineBase {
 
+    /**
+     * The maximum number of bytes of rendered views kept in the cache. The least recently used
+     * views are evicted first. Use {@code 0} to disable the cache. Defaults to 16 MiB.
+     */
+    public static final String CACHE_SIZE = "org.eclipse.krazo.ext.asciidoc.cacheSize";
+
+    /**
+     * Milliseconds after which a cached view is checked for modifications of its document again.
+     * Use {@code 0} to check on every request and a negative value to never check again.
+     * Defaults to {@code 2000}.
+     */
+    public static final String CHECK_INTERVAL = "org.eclipse.krazo.ext.asciidoc.checkInterval";
+
+    private static final long DEFAULT_CACHE_SIZE = 16L * 1024 * 1024;
+
+    private static final long DEFAULT_CHECK_INTERVAL = 2000L;
+
+    private static final String MVC_CONTEXT = "mvc";
+
     private final Asciidoctor asciidoctor;
 
     @Inject
     private ServletContext servletContext;
 
+    @Inject
+    @JaxRsContext
+    private Configuration config;
+
+    private LruCache<CacheKey, RenderedView> cache;
+
+    private long checkIntervalNanos;
+
     public AsciiDocViewEngine() {
         asciidoctor = Factory.create();
     }
 
+    @PostConstruct
+    void init() {
+        long cacheSize = PropertyUtils.getLongProperty(config, CACHE_SIZE, DEFAULT_CACHE_SIZE);
+        if (cacheSize > 0) {
+            cache = new LruCache<>(cacheSize, rendered -> rendered.html.length);
+        }
+        long checkInterval = PropertyUtils.getLongProperty(config, CHECK_INTERVAL, DEFAULT_CHECK_INTERVAL);
+        checkIntervalNanos = checkInterval < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(checkInterval);
+    }
+
     @Override
     public boolean supports(String view) {
         return view.endsWith(".adoc") || view.endsWith(".asciidoc");
@@ -65,17 +121,143 @@ public class AsciiDocViewEngine extends ViewEngineBase {
     @Override
     public void processView(ViewEngineContext context) throws ViewEngineException {
         Charset charset = resolveCharsetAndSetContentType(context);
-        try (Writer writer = new OutputStreamWriter(context.getOutputStream(), charset);
-             InputStream is = servletContext.getResourceAsStream(resolveView(context));
-             InputStreamReader isr = new InputStreamReader(is, "UTF-8");
-             BufferedReader reader = new BufferedReader(isr)) {
+        String view = resolveView(context);
+        Map<String, Object> attributes = new HashMap<>(context.getModels().asMap());
 
-            Options options = new Options();
-            options.setAttributes(new HashMap<>(context.getModels().asMap()));
+        try {
+
+            CacheKey key = cache != null ? CacheKey.of(view, charset, attributes) : null;
+            if (key == null) {
+                try (Writer writer = createWriter(context.getOutputStream(), charset)) {
+                    convert(view, attributes, writer);
+                }
+                return;
+            }
+
+            long now = System.nanoTime();
+            RenderedView rendered = cache.get(key);
+            if (rendered != null && isCheckDue(rendered, now)) {
+                if (rendered.lastModified != getLastModified(view)) {
+                    rendered = null;
+                } else {
+                    rendered.checkedAt = now;
+                }
+            }
+            if (rendered == null) {
+                long lastModified = getLastModified(view);
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (Writer writer = createWriter(buffer, charset)) {
+                    convert(view, attributes, writer);
+                }
+                rendered = new RenderedView(buffer.toByteArray(), lastModified, now);
+                cache.put(key, rendered);
+            }
+
+            OutputStream out = context.getOutputStream();
+            out.write(rendered.html);
+            out.flush();
 
-            asciidoctor.convert(reader, writer, options);
         } catch (IOException e) {
             throw new ViewEngineException(e);
         }
     }
+
+    private void convert(String view, Map<String, Object> attributes, Writer writer) throws IOException {
+        InputStream is = servletContext.getResourceAsStream(view);
+        if (is == null) {
+            throw new FileNotFoundException(String.format("AsciiDoc document '%s' not found.", view));
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"))) {
+            Options options = new Options();
+            options.setAttributes(attributes);
+            asciidoctor.convert(reader, writer, options);
+        }
+    }
+
+    private boolean isCheckDue(RenderedView rendered, long now) {
+        return checkIntervalNanos >= 0 && now - rendered.checkedAt >= checkIntervalNanos;
+    }
+
+    private long getLastModified(String view) {
+        String path = servletContext.getRealPath(view);
+        return path != null ? new File(path).lastModified() : 0;
+    }
+
+    /**
+     * Cache key consisting of the view, the charset and the string representation
+     * of all model attributes.
+     */
+    private static final class CacheKey {
+
+        private final String view;
+
+        private final Charset charset;
+
+        private final Map<String, String> attributes;
+
+        private final int hash;
+
+        private CacheKey(String view, Charset charset, Map<String, String> attributes) {
+            this.view = view;
+            this.charset = charset;
+            this.attributes = attributes;
+            this.hash = 31 * (31 * view.hashCode() + charset.hashCode()) + attributes.hashCode();
+        }
+
+        /**
+         * Creates a key or returns {@code null} if the attributes contain values which
+         * don't have a stable string representation.
+         */
+        private static CacheKey of(String view, Charset charset, Map<String, Object> attributes) {
+            Map<String, String> values = new TreeMap<>();
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                if (MVC_CONTEXT.equals(attribute.getKey())) {
+                    continue;
+                }
+                Object value = attribute.getValue();
+                if (value != null && !(value instanceof CharSequence || value instanceof Number
+                    || value instanceof Boolean || value instanceof Character || value instanceof Enum)) {
+                    return null;
+                }
+                values.put(attribute.getKey(), String.valueOf(value));
+            }
+            return new CacheKey(view, charset, values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return hash == that.hash && view.equals(that.view) && charset.equals(that.charset)
+                && attributes.equals(that.attributes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The encoded result of a conversion.
+     */
+    private static final class RenderedView {
+
+        private final byte[] html;
+
+        private final long lastModified;
+
+        private volatile long checkedAt;
+
+        private RenderedView(byte[] html, long lastModified, long checkedAt) {
+            this.html = html;
+            this.lastModified = lastModified;
+            this.checkedAt = checkedAt;
+        }
+    }
 }
@@ -19,59 +19,93 @@
 package org.eclipse.krazo.ext.freemarker;
 
 import org.eclipse.krazo.engine.ViewEngineConfig;
+import org.eclipse.krazo.jaxrs.JaxRsContext;
+import org.eclipse.krazo.util.DirectoryWatcher;
+import org.eclipse.krazo.util.PropertyUtils;
 import freemarker.cache.TemplateLoader;
 import freemarker.template.Configuration;
 
+import jakarta.enterprise.inject.Disposes;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Inject;
 import jakarta.servlet.ServletContext;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * Producer for the Freemarker {@link freemarker.template.Configuration} used by
- * {@link FreemarkerViewEngine}.
+ * <p>Producer for the Freemarker {@link freemarker.template.Configuration} used by
+ * {@link FreemarkerViewEngine}.</p>
+ *
+ * <p>The produced configuration can be tuned using the following properties of the
+ * JAX-RS application:</p>
+ * <ul>
+ * <li>{@link #TEMPLATE_UPDATE_DELAY}</li>
+ * <li>{@link #WATCH_TEMPLATES}</li>
+ * </ul>
  *
  * @author Christian Kaltepoth
  */
 public class DefaultConfigurationProducer {
 
+    /**
+     * Minimum time in milliseconds between two checks whether a cached template has been
+     * modified. Defaults to the Freemarker default of 5 seconds. Use {@code 0} to check on
+     * every request, which is useful during development.
+     */
+    public static final String TEMPLATE_UPDATE_DELAY = "org.eclipse.krazo.ext.freemarker.templateUpdateDelay";
+
+    /**
+     * If set to {@code true}, template directories are watched for changes and the template
+     * cache is cleared whenever a template changes. Templates are not checked for modifications
+     * on requests in this mode. Defaults to {@code false}.
+     */
+    public static final String WATCH_TEMPLATES = "org.eclipse.krazo.ext.freemarker.watchTemplates";
+
+    private static final Logger log = Logger.getLogger(DefaultConfigurationProducer.class.getName());
+
     @Inject
     private ServletContext servletContext;
 
+    @Inject
+    @JaxRsContext
+    private jakarta.ws.rs.core.Configuration config;
+
     @Produces
     @ViewEngineConfig
     public Configuration getConfiguration() {
 
         Configuration configuration = new Configuration(Configuration.VERSION_2_3_26);
         configuration.setDefaultEncoding("UTF-8");
-        configuration.setTemplateLoader(new TemplateLoader() {
 
-            @Override
-            public Object findTemplateSource(String s) throws IOException {
-                return servletContext.getResourceAsStream("/" + s);     // Freemarker drops "/"
+        DirectoryWatcher watcher = null;
+        if (PropertyUtils.getBooleanProperty(config, WATCH_TEMPLATES, false)) {
+            try {
+                watcher = new DirectoryWatcher("krazo-freemarker-watcher", path -> configuration.clearTemplateCache());
+                configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Unable to watch Freemarker templates, falling back to update delay", e);
             }
+        }
 
-            @Override
-            public long getLastModified(Object o) {
-                return -1;
-            }
-
-            @Override
-            public Reader getReader(Object o, String s) throws IOException {
-                return new InputStreamReader((InputStream) o);
-            }
+        if (watcher == null) {
+            long delay = PropertyUtils.getLongProperty(config, TEMPLATE_UPDATE_DELAY,
+                configuration.getTemplateUpdateDelayMilliseconds());
+            configuration.setTemplateUpdateDelayMilliseconds(delay);
+        }
 
-            @Override
-            public void closeTemplateSource(Object o) throws IOException {
-                ((InputStream) o).close();
-            }
-        });
+        configuration.setTemplateLoader(new ServletContextTemplateLoader(servletContext, watcher));
 
         return configuration;
 
     }
 
+    void dispose(@Disposes @ViewEngineConfig Configuration configuration) {
+        TemplateLoader templateLoader = configuration.getTemplateLoader();
+        if (templateLoader instanceof ServletContextTemplateLoader) {
+            ((ServletContextTemplateLoader) templateLoader).close();
+        }
+        configuration.clearTemplateCache();
+    }
+
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.ext.freemarker;
+
+import freemarker.cache.TemplateLoader;
+import org.eclipse.krazo.util.DirectoryWatcher;
+
+import jakarta.servlet.ServletContext;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
+
+/**
+ * <p>A {@link TemplateLoader} which loads templates from the {@link ServletContext}.</p>
+ *
+ * <p>If the servlet container provides a real path for a template, the loader reports the
+ * modification time of the underlying file, so that Freemarker is able to detect changes.
+ * Templates without a real path (e.g. in packed archives) are considered to never change.
+ * Template sources are lightweight descriptors, so checking a cached template for changes
+ * doesn't open the resource.</p>
+ *
+ * <p>If a {@link DirectoryWatcher} is provided, the directories of all loaded templates are
+ * registered with it.</p>
+ */
+class ServletContextTemplateLoader implements TemplateLoader, Closeable {
+
+    private final ServletContext servletContext;
+
+    private final DirectoryWatcher watcher;
+
+    ServletContextTemplateLoader(ServletContext servletContext, DirectoryWatcher watcher) {
+        this.servletContext = Objects.requireNonNull(servletContext, "servletContext must not be null!");
+        this.watcher = watcher;
+    }
+
+    @Override
+    public Object findTemplateSource(String name) throws IOException {
+
+        String path = "/" + name;   // Freemarker drops "/"
+
+        String realPath = servletContext.getRealPath(path);
+        if (realPath != null) {
+            File file = new File(realPath);
+            if (file.isFile()) {
+                if (watcher != null) {
+                    watcher.register(file.getParentFile().toPath());
+                }
+                return new TemplateSource(path, file);
+            }
+        }
+
+        return servletContext.getResource(path) != null ? new TemplateSource(path, null) : null;
+
+    }
+
+    @Override
+    public long getLastModified(Object source) {
+        File file = ((TemplateSource) source).file;
+        return file != null ? file.lastModified() : -1;
+    }
+
+    @Override
+    public Reader getReader(Object source, String encoding) throws IOException {
+
+        TemplateSource templateSource = (TemplateSource) source;
+
+        InputStream stream = templateSource.file != null
+            ? new FileInputStream(templateSource.file)
+            : servletContext.getResourceAsStream(templateSource.path);
+        if (stream == null) {
+            throw new FileNotFoundException(String.format("Freemarker template '%s' not found.", templateSource.path));
+        }
+
+        return new InputStreamReader(stream, encoding);
+
+    }
+
+    @Override
+    public void closeTemplateSource(Object source) {
+        // the reader is closed by Freemarker, nothing is kept open by the source itself
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Template source descriptor. Freemarker requires sources to implement equals and hashCode,
+     * because they are compared to decide whether a cached template is still valid.
+     */
+    private static final class TemplateSource {
+
+        private final String path;
+
+        private final File file;
+
+        private TemplateSource(String path, File file) {
+            this.path = path;
+            this.file = file;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TemplateSource that = (TemplateSource) o;
+            return path.equals(that.path) && Objects.equals(file, that.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, file);
+        }
+
+        @Override
+        public String toString() {
+            return file != null ? file.getPath() : path;
+        }
+    }
+
+}
@@ -31,15 +31,12 @@ import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
 import jakarta.mvc.engine.ViewEngineException;
 import jakarta.servlet.ServletContext;
-import jakarta.servlet.http.HttpServletRequest;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -68,12 +65,11 @@ public class HandlebarsViewEngine extends ViewEngineBase {
     public void processView(ViewEngineContext context) throws ViewEngineException {
         handlebars.with(new ServletContextTemplateLoader(servletContext, getViewFolder(context)));
 
-        Map<String, Object> model = new HashMap<>(context.getModels().asMap());
-        model.put("request", context.getRequest(HttpServletRequest.class));
+        Map<String, Object> model = getModelsWithRequest(context);
 
         Charset charset = resolveCharsetAndSetContentType(context);
 
-        try (Writer writer = new OutputStreamWriter(context.getOutputStream(), charset);
+        try (Writer writer = createWriter(context.getOutputStream(), charset);
 
             InputStream resourceAsStream = servletContext.getResourceAsStream(resolveView(context));
             InputStreamReader in = new InputStreamReader(resourceAsStream, "UTF-8");
@@ -33,6 +33,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * The JadeKrazoConfiguration. The configuration properties are qualified by
@@ -85,6 +87,22 @@ public class JadeKrazoConfiguration {
      */
     public static final String ENCODING = "org.eclipse.krazo.ext.jade.encoding";
 
+    /**
+     * Milliseconds for which the modification time of a template is cached before the file
+     * system is checked again. Use 0 to check on every access and a negative value to never
+     * check again. Defaults to 5000 if caching is enabled and to 0 otherwise.
+     */
+    public static final String CHECK_INTERVAL = "org.eclipse.krazo.ext.jade.checkInterval";
+
+    /**
+     * If set to true, template directories are watched for changes and cached modification
+     * times are only invalidated when a template changes. The file system is not checked on
+     * requests in this mode.
+     */
+    public static final String WATCH_TEMPLATES = "org.eclipse.krazo.ext.jade.watchTemplates";
+
+    private static final Logger LOGGER = Logger.getLogger(JadeKrazoConfiguration.class.getName());
+
     private Properties configFile;
 
     @Inject
@@ -103,10 +121,22 @@ public class JadeKrazoConfiguration {
         });
         jade.setSharedVariables(getExtensions(HELPER_QUALIFIER));
         String encoding = property(ENCODING).orElse("UTF-8");
-        jade.setTemplateLoader(new ServletContextTemplateLoader(servletContext, encoding));
+        jade.setTemplateLoader(createTemplateLoader(encoding, jade.isCaching()));
         return jade;
     }
 
+    private ServletContextTemplateLoader createTemplateLoader(String encoding, boolean caching) {
+        if (Boolean.parseBoolean(property(WATCH_TEMPLATES).orElse("false"))) {
+            try {
+                return ServletContextTemplateLoader.watching(servletContext, encoding);
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Jade initialization error: Could not watch templates, using check interval", ex);
+            }
+        }
+        long checkInterval = Long.parseLong(property(CHECK_INTERVAL).orElse(caching ? "5000" : "0"));
+        return new ServletContextTemplateLoader(servletContext, encoding, checkInterval);
+    }
+
     private void loadConfig() {
         configFile = new Properties();
         InputStream config = Thread.currentThread().getContextClassLoader().getResourceAsStream("jade.properties");
@@ -153,6 +183,9 @@ public class JadeKrazoConfiguration {
     }
 
     void dispose(@Disposes @ViewEngineConfig JadeConfiguration jade) {
+        if (jade.getTemplateLoader() instanceof ServletContextTemplateLoader) {
+            ((ServletContextTemplateLoader) jade.getTemplateLoader()).close();
+        }
         jade.clearCache();
     }
 }
@@ -30,12 +30,9 @@ import jakarta.inject.Inject;
 import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
 import jakarta.mvc.engine.ViewEngineException;
-import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -63,12 +60,11 @@ public class JadeViewEngine extends ViewEngineBase {
 
         Charset charset = resolveCharsetAndSetContentType(context);
 
-        try (Writer writer = new OutputStreamWriter(context.getOutputStream(), charset)) {
+        try (Writer writer = createWriter(context.getOutputStream(), charset)) {
 
             JadeTemplate template = jade.getTemplate(resolveView(context));
 
-            Map<String, Object> model = new HashMap<>(context.getModels().asMap());
-            model.put("request", context.getRequest(HttpServletRequest.class));
+            Map<String, Object> model = getModelsWithRequest(context);
 
             jade.renderTemplate(template, model, writer);
 
@@ -19,9 +19,11 @@
 package org.eclipse.krazo.ext.jade;
 
 import de.neuland.jade4j.template.TemplateLoader;
+import org.eclipse.krazo.util.DirectoryWatcher;
 
 import jakarta.servlet.ServletContext;
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -29,25 +31,77 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A TemplateLoader using {@link ServletContext#getResource(String)} for loading
- * the given viewPath.
+ * <p>A TemplateLoader using {@link ServletContext#getResource(String)} for loading
+ * the given viewPath.</p>
+ *
+ * <p>Jade asks for the modification time of every template, include and parent template
+ * whenever a view is rendered. To avoid hitting the file system for each of these calls,
+ * the results are cached. Cached results are either refreshed after a check interval or,
+ * for loaders created by {@link #watching(ServletContext, String)}, invalidated when a
+ * {@link DirectoryWatcher} reports a change.</p>
  *
  * @author Florian Hirsch
  */
-class ServletContextTemplateLoader implements TemplateLoader {
+class ServletContextTemplateLoader implements TemplateLoader, Closeable {
 
     private final ServletContext servletContext;
 
     private final String encoding;
 
+    private final long checkIntervalNanos;
+
+    private final DirectoryWatcher watcher;
+
+    private final Map<String, Stat> stats;
+
     public ServletContextTemplateLoader(ServletContext servletContext, String encoding) {
+        this(servletContext, encoding, 0);
+    }
+
+    /**
+     * Creates a loader which caches modification times for the given interval.
+     *
+     * @param servletContext the servlet context.
+     * @param encoding the encoding of the templates.
+     * @param checkInterval milliseconds after which a template is checked for modifications again,
+     *                      {@code 0} to check every time and a negative value to never check again.
+     */
+    public ServletContextTemplateLoader(ServletContext servletContext, String encoding, long checkInterval) {
+        this(servletContext, encoding, checkInterval, new ConcurrentHashMap<>(), null);
+    }
+
+    private ServletContextTemplateLoader(ServletContext servletContext, String encoding, long checkInterval,
+                                         Map<String, Stat> stats, DirectoryWatcher watcher) {
         Objects.requireNonNull(servletContext, "servletContext must not be null!");
         Objects.requireNonNull(encoding, "encoding must not be null!");
         this.servletContext = servletContext;
         this.encoding = encoding;
+        this.checkIntervalNanos = checkInterval < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(checkInterval);
+        this.stats = stats;
+        this.watcher = watcher;
+    }
+
+    /**
+     * Creates a loader which watches the template directories for changes. Cached modification
+     * times are kept until the watcher reports a change.
+     *
+     * @param servletContext the servlet context.
+     * @param encoding the encoding of the templates.
+     * @return the loader.
+     * @throws IOException if the watch service cannot be created.
+     */
+    public static ServletContextTemplateLoader watching(ServletContext servletContext, String encoding)
+            throws IOException {
+        Map<String, Stat> stats = new ConcurrentHashMap<>();
+        DirectoryWatcher watcher = new DirectoryWatcher("krazo-jade-watcher", path -> invalidate(stats, path));
+        return new ServletContextTemplateLoader(servletContext, encoding, -1, stats, watcher);
     }
 
     @Override
@@ -61,19 +115,80 @@ class ServletContextTemplateLoader implements TemplateLoader {
 
     @Override
     public long getLastModified(String name) throws IOException {
+        if (checkIntervalNanos == 0 && watcher == null) {
+            return stat(name, 0).lastModified;
+        }
+        long now = System.nanoTime();
+        Stat stat = stats.get(name);
+        if (stat == null || (checkIntervalNanos > 0 && now - stat.checkedAt >= checkIntervalNanos)) {
+            stat = stat(name, now);
+            // missing templates are checked again, as they may be added at any time
+            if (stat.lastModified != -1) {
+                stats.put(name, stat);
+            } else {
+                stats.remove(name);
+            }
+        }
+        return stat.lastModified;
+    }
+
+    @Override
+    public String getExtension() {
+        return "jade";
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.close();
+        }
+        stats.clear();
+    }
+
+    /**
+     * Invalidates the cached modification times of all templates affected by a change
+     * of the given file or directory.
+     *
+     * @param path the changed path.
+     */
+    void invalidate(Path path) {
+        invalidate(stats, path);
+    }
+
+    private static void invalidate(Map<String, Stat> stats, Path path) {
+        stats.values().removeIf(stat -> stat.file != null && stat.file.startsWith(path));
+    }
+
+    private Stat stat(String name, long now) {
         String path = servletContext.getRealPath(name);
         if (path == null) {
-            return -1;
+            return new Stat(null, -1, now);
         }
         File template = new File(path);
+        if (watcher != null && template.getParentFile() != null) {
+            watcher.register(template.getParentFile().toPath());
+        }
         if (!template.exists()) {
-            return -1;
+            return new Stat(template.toPath(), -1, now);
         }
-        return template.lastModified();
+        return new Stat(template.toPath(), template.lastModified(), now);
     }
 
-    @Override
-    public String getExtension() {
-        return "jade";
+    /**
+     * Cached result of a file system check.
+     */
+    private static final class Stat {
+
+        private final Path file;
+
+        private final long lastModified;
+
+        private final long checkedAt;
+
+        private Stat(Path file, long lastModified, long checkedAt) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.checkedAt = checkedAt;
+        }
     }
 }
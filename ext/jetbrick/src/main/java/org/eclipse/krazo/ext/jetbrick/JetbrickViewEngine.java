@@ -32,12 +32,9 @@ import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
 import jakarta.mvc.engine.ViewEngineException;
 import jakarta.servlet.ServletContext;
-import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -67,12 +64,11 @@ public class JetbrickViewEngine extends ViewEngineBase {
 
         Charset charset = resolveCharsetAndSetContentType(context);
 
-        try (Writer writer = new OutputStreamWriter(context.getOutputStream(), charset)) {
+        try (Writer writer = createWriter(context.getOutputStream(), charset)) {
 
             JetTemplate template = jetEngine.getTemplate(resolveView(context));
 
-            Map<String, Object> model = new HashMap<>(context.getModels().asMap());
-            model.put("request", context.getRequest(HttpServletRequest.class));
+            Map<String, Object> model = getModelsWithRequest(context);
 
             template.render(model, writer);
 
@@ -23,7 +23,6 @@ import org.eclipse.krazo.engine.ViewEngineBase;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import jakarta.annotation.Priority;
@@ -105,7 +104,7 @@ public class Jsr223ViewEngine extends ViewEngineBase {
         }
 
         Charset charset = resolveCharsetAndSetContentType(context);
-        try (Writer writer = new OutputStreamWriter(context.getOutputStream(), charset)) {
+        try (Writer writer = createWriter(context.getOutputStream(), charset)) {
             writer.write(responseObject.toString());
         } catch (IOException exception) {
             throw new ViewEngineException("Unable to write response", exception);
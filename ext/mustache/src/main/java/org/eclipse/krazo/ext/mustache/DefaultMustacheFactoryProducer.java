@@ -21,10 +21,14 @@ package org.eclipse.krazo.ext.mustache;
 import com.github.mustachejava.DefaultMustacheFactory;
 import com.github.mustachejava.MustacheFactory;
 import org.eclipse.krazo.engine.ViewEngineConfig;
+import org.eclipse.krazo.jaxrs.JaxRsContext;
+import org.eclipse.krazo.util.ExecutorUtils;
 
+import jakarta.enterprise.inject.Disposes;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Inject;
 import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.core.Configuration;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -39,13 +43,33 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class DefaultMustacheFactoryProducer {
 
+    /**
+     * Configures the executor used to evaluate {@link java.util.concurrent.Callable} and
+     * {@link java.util.concurrent.Future} model values concurrently. Either the number of
+     * threads of a bounded executor or {@code virtual} to use one virtual thread per task
+     * on Java 21 or newer. Values are evaluated sequentially by default.
+     */
+    public static final String EXECUTOR = "org.eclipse.krazo.ext.mustache.executor";
+
     @Inject
     private ServletContext servletContext;
 
+    @Inject
+    @JaxRsContext
+    private Configuration config;
+
     @Produces
     @ViewEngineConfig
     public MustacheFactory getMustacheFactory() {
-        return new KrazoMustacheFactory();
+        KrazoMustacheFactory factory = new KrazoMustacheFactory();
+        factory.setExecutorService(ExecutorUtils.newExecutor("krazo-mustache", config.getProperty(EXECUTOR)));
+        return factory;
+    }
+
+    void dispose(@Disposes @ViewEngineConfig MustacheFactory factory) {
+        if (factory instanceof DefaultMustacheFactory) {
+            ExecutorUtils.shutdown(((DefaultMustacheFactory) factory).getExecutorService());
+        }
     }
 
     private class KrazoMustacheFactory extends DefaultMustacheFactory {
@@ -29,12 +29,9 @@ import jakarta.inject.Inject;
 import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
 import jakarta.mvc.engine.ViewEngineException;
-import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -60,14 +57,14 @@ public class MustacheViewEngine extends ViewEngineBase {
 
         Charset charset = resolveCharsetAndSetContentType(context);
 
-        try (Writer writer = new OutputStreamWriter(context.getOutputStream(), charset)) {
+        try (Writer writer = createWriter(context.getOutputStream(), charset)) {
 
             Mustache mustache = factory.compile(resolveView(context));
 
-            Map<String, Object> model = new HashMap<>(context.getModels().asMap());
-            model.put("request", context.getRequest(HttpServletRequest.class));
+            Map<String, Object> model = getModelsWithRequest(context);
 
-            mustache.execute(writer, model).flush();
+            // closing (instead of flushing) waits for concurrently evaluated values to be written
+            mustache.execute(writer, model).close();
 
         } catch (IOException e) {
             throw new ViewEngineException(e);
@@ -24,7 +24,10 @@ import com.mitchellbosecke.pebble.extension.escaper.EscapingStrategy;
 import com.mitchellbosecke.pebble.loader.ServletLoader;
 import java.lang.reflect.InvocationTargetException;
 import org.eclipse.krazo.engine.ViewEngineConfig;
+import org.eclipse.krazo.util.ExecutorUtils;
 
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Instance;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Inject;
 import jakarta.servlet.ServletContext;
@@ -33,15 +36,31 @@ import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
+/**
+ * <p>Producer for the {@link PebbleEngine} used by {@link PebbleViewEngine}.</p>
+ *
+ * <p>The executor used by Pebble's {@code parallel} tag can be provided by the application
+ * by producing an {@link ExecutorService} qualified with {@link ViewEngineConfig}, for example
+ * a container-managed executor. Such executors take precedence over
+ * {@link PebbleProperty#EXECUTOR_SERVICE}, which is ignored then, and are not shut down by Krazo. Executors created
+ * from {@link PebbleProperty#EXECUTOR_SERVICE} are shut down when the engine is disposed.</p>
+ */
 public class PebbleEngineProducer {
 
     protected Properties pebbleConfiguration;
     protected ServletContext servletContext;
+    protected Instance<ExecutorService> executorServices;
 
-    @Inject
     public PebbleEngineProducer(Properties pebbleConfiguration, ServletContext servletContext) {
+        this(pebbleConfiguration, servletContext, null);
+    }
+
+    @Inject
+    public PebbleEngineProducer(Properties pebbleConfiguration, ServletContext servletContext,
+                                @ViewEngineConfig Instance<ExecutorService> executorServices) {
         this.pebbleConfiguration = pebbleConfiguration;
         this.servletContext = servletContext;
+        this.executorServices = executorServices;
     }
 
     protected PebbleEngineProducer(ServletContext servletContext) {
@@ -91,6 +110,14 @@ public class PebbleEngineProducer {
                         engine.strictVariables(Boolean.valueOf(val));
                         break;
                     case EXECUTOR_SERVICE:
+                        // an executor provided by the application wins, so don't create one which would never be shut down
+                        if (isExecutorServiceProvided()) {
+                            break;
+                        }
+                        if (ExecutorUtils.VIRTUAL.equalsIgnoreCase(val.trim())) {
+                            engine.executorService(ExecutorUtils.newExecutor("krazo-pebble", val));
+                            break;
+                        }
                         try {
                             engine.executorService((ExecutorService) Class.forName(val).getDeclaredConstructor().newInstance());
                         } catch (ClassNotFoundException | IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException ex) {
@@ -118,9 +145,23 @@ public class PebbleEngineProducer {
                 }
             });
 
+        if (isExecutorServiceProvided()) {
+            engine.executorService(executorServices.get());
+        }
+
         engine.loader(new ServletLoader(servletContext));
 
         return engine.build();
     }
 
+    public void dispose(@Disposes @ViewEngineConfig PebbleEngine pebbleEngine) {
+        if (!isExecutorServiceProvided()) {
+            ExecutorUtils.shutdown(pebbleEngine.getExecutorService());
+        }
+    }
+
+    private boolean isExecutorServiceProvided() {
+        return executorServices != null && executorServices.isResolvable();
+    }
+
 }
@@ -29,6 +29,10 @@ public enum PebbleProperty {
     DEFAULT_LOCALE("defaultLocale"),
     NEW_LINE_TRIMMING("newLineTrimming"),
     STRICT_VARIABLES("strictVariables"),
+    /**
+     * Either the class name of an {@link java.util.concurrent.ExecutorService} with a public
+     * no-arg constructor or {@code virtual} for one virtual thread per task on Java 21+.
+     */
     EXECUTOR_SERVICE("executorService"),
     EXTENSION("extension"),
     UNKNOWN("unknown");
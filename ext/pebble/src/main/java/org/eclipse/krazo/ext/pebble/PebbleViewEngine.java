@@ -30,9 +30,7 @@ import jakarta.inject.Inject;
 import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
 import jakarta.mvc.engine.ViewEngineException;
-import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.HashMap;
@@ -67,12 +65,12 @@ public class PebbleViewEngine extends ViewEngineBase {
 
         Charset charset = resolveCharsetAndSetContentType(context);
 
-        try (Writer writer = new OutputStreamWriter(context.getOutputStream(), charset)) {
+        try (Writer writer = createWriter(context.getOutputStream(), charset)) {
 
             PebbleTemplate template = pebbleEngine.getTemplate(resolveView(context));
 
-            Map<String, Object> model = new HashMap<>(context.getModels().asMap());
-            model.put("request", context.getRequest(HttpServletRequest.class));
+            // Pebble stores variables assigned by the template in this map, so it has to be a copy
+            Map<String, Object> model = new HashMap<>(getModelsWithRequest(context));
 
             template.evaluate(writer, model);
 
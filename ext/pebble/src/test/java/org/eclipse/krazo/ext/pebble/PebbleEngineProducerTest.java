@@ -24,9 +24,14 @@ import com.mitchellbosecke.pebble.loader.ServletLoader;
 import org.junit.Before;
 import org.junit.Test;
 
+import jakarta.enterprise.inject.Instance;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
 import static org.junit.Assert.*;
 
 
@@ -76,6 +81,34 @@ public class PebbleEngineProducerTest {
         assertTrue(pebbleEngineProducer.pebbleEngine().getExecutorService() instanceof CustomExecutorService);
     }
 
+    @Test
+    public void shouldCreateVirtualThreadExecutorService() {
+        properties.put(PebbleProperty.EXECUTOR_SERVICE.key(), "virtual");
+
+        PebbleEngine pebbleEngine = pebbleEngineProducer.pebbleEngine();
+        assertNotNull(pebbleEngine.getExecutorService());
+
+        pebbleEngineProducer.dispose(pebbleEngine);
+        assertTrue(pebbleEngine.getExecutorService().isShutdown());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPreferProvidedExecutorService() {
+        properties.put(PebbleProperty.EXECUTOR_SERVICE.key(), "org.dummy.DummyExecutorService");
+        ExecutorService executorService = new CustomExecutorService();
+        Instance<ExecutorService> executorServices = createMock(Instance.class);
+        expect(executorServices.isResolvable()).andReturn(true).anyTimes();
+        expect(executorServices.get()).andReturn(executorService).anyTimes();
+        replay(executorServices);
+        pebbleEngineProducer = new PebbleEngineProducer(properties, null, executorServices);
+
+        // the configured executor isn't even created, and the provided one isn't shut down
+        PebbleEngine pebbleEngine = pebbleEngineProducer.pebbleEngine();
+        assertSame(executorService, pebbleEngine.getExecutorService());
+        pebbleEngineProducer.dispose(pebbleEngine);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void shouldThrowExceptionWhileSettingExecutorService() {
         properties.put(PebbleProperty.EXECUTOR_SERVICE.key(), "org.dummy.DummyExecutorService");
@@ -26,10 +26,10 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.mvc.engine.*;
 import jakarta.servlet.ServletContext;
-import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.Map;
 import java.util.regex.Matcher;
 
 import static java.util.regex.Pattern.compile;
@@ -54,9 +54,16 @@ public class StringTemplateViewEngine extends ViewEngineBase {
 	@Override
 	public void processView(ViewEngineContext context) throws ViewEngineException {
 		ST stringTemplate = getStringTemplate(resolveView(context));
-		context.getModels().asMap().forEach((key, value) -> add(key, value, stringTemplate));
+		// only look up the attributes the template declares, so unused lazy models are never resolved
+		Map<String, Object> models = context.getModels().asMap();
+		Map<String, Object> attributes = stringTemplate.getAttributes();
+		if (attributes != null) {
+			for (String name : attributes.keySet()) {
+				if (models.containsKey(name)) stringTemplate.add(name, models.get(name));
+			}
+		}
 		Charset charset = resolveCharsetAndSetContentType(context);
-		try(Writer writer = new OutputStreamWriter(context.getOutputStream(), charset)) {
+		try(Writer writer = createWriter(context.getOutputStream(), charset)) {
 			stringTemplate.write(new AutoIndentWriter(writer));
 			stringTemplate.render();
 		} catch (Exception e) {
@@ -64,10 +71,6 @@ public class StringTemplateViewEngine extends ViewEngineBase {
 		}
 	}
 
-	private void add(String key, Object value, ST template) {
-		if (template.getAttributes().containsKey(key)) template.add(key, value);
-	}
-
 	public ST getStringTemplate(String resolvedView) throws ViewEngineException {
 		Matcher matcher = compile("(.+)/(.+)\\.st").matcher(resolvedView);
 		if (matcher.find()) {
@@ -61,7 +61,8 @@ class CDIWebContext implements IWebContext {
     /** keeps track of creational contexts, so beans can get disposed by calling {@link #close()} */
     private final Queue<CreationalContext<?>> contexts = new LinkedList<>();
 
-    private final Map<String, Object> variables = new HashMap<>();
+    /** the models of the view, which are not copied so that lazy values are only computed when used */
+    private Map<String, Object> variables = Collections.emptyMap();
 
     CDIWebContext(BeanManager beanManager, HttpServletRequest request, HttpServletResponse response, ServletContext servletContext, Locale locale) {
         this.beanManager = beanManager;
@@ -146,10 +147,7 @@ class CDIWebContext implements IWebContext {
     }
 
     void setVariables(Map<String, Object> variables) {
-        this.variables.clear();
-        if (variables != null) {
-            this.variables.putAll(variables);
-        }
+        this.variables = variables != null ? variables : Collections.emptyMap();
     }
 
     /**
@@ -33,7 +33,6 @@ import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -69,8 +68,7 @@ public class ThymeleafViewEngine extends ViewEngineBase {
 
             CDIWebContext ctx = new CDIWebContext(beanManager, request, response, servletContext, context.getLocale());
 
-            Map<String, Object> model = new HashMap<>(context.getModels().asMap());
-            model.put("request", request);
+            Map<String, Object> model = getModelsWithRequest(context);
             ctx.setVariables(model);
 
             try {
@@ -19,31 +19,78 @@
 package org.eclipse.krazo.ext.velocity;
 
 import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
 import org.eclipse.krazo.engine.ViewEngineConfig;
+import org.eclipse.krazo.jaxrs.JaxRsContext;
+import org.eclipse.krazo.util.PropertyUtils;
 
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Inject;
 import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.core.Configuration;
 
 /**
- * Producer for the VelocityEngine used by VelocityViewEngine.
+ * <p>Producer for the VelocityEngine used by VelocityViewEngine.</p>
+ *
+ * <p>Parsed templates are cached by Velocity's resource manager. The cache can be tuned
+ * using the following properties of the JAX-RS application:</p>
+ * <ul>
+ * <li>{@link #CACHE}</li>
+ * <li>{@link #MODIFICATION_CHECK_INTERVAL}</li>
+ * <li>{@link #CACHE_SIZE}</li>
+ * </ul>
  *
  * @author Christian Kaltepoth
  */
 public class DefaultVelocityEngineProducer {
 
+    /**
+     * Parsed templates will be cached unless this property is set to {@code false}.
+     */
+    public static final String CACHE = "org.eclipse.krazo.ext.velocity.cache";
+
+    /**
+     * Interval in seconds after which a cached template is checked for modifications.
+     * A value of {@code 0} or less disables the checks. Defaults to {@code 2}.
+     */
+    public static final String MODIFICATION_CHECK_INTERVAL = "org.eclipse.krazo.ext.velocity.modificationCheckInterval";
+
+    /**
+     * The maximum number of parsed templates kept in the cache. The least recently used
+     * templates are evicted first. A value of {@code 0} or less makes the cache
+     * unbounded. Defaults to {@code 89}.
+     */
+    public static final String CACHE_SIZE = "org.eclipse.krazo.ext.velocity.cacheSize";
+
+    private static final String LOADER = "webapp";
+
     @Inject
     private ServletContext servletContext;
 
+    @Inject
+    @JaxRsContext
+    private Configuration config;
+
     @Produces
     @ViewEngineConfig
     public VelocityEngine getVelocityEngine() {
         VelocityEngine velocityEngine = new VelocityEngine();
-        velocityEngine.setProperty("resource.loader", "webapp");
-        velocityEngine.setProperty("webapp.resource.loader.class", ServletContextResourceLoader.class.getCanonicalName());
+        velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADERS, LOADER);
+        velocityEngine.setProperty(loaderProperty(RuntimeConstants.RESOURCE_LOADER_CLASS),
+            ServletContextResourceLoader.class.getCanonicalName());
+        velocityEngine.setProperty(loaderProperty(RuntimeConstants.RESOURCE_LOADER_CACHE),
+            PropertyUtils.getBooleanProperty(config, CACHE, true));
+        velocityEngine.setProperty(loaderProperty(RuntimeConstants.RESOURCE_LOADER_CHECK_INTERVAL),
+            PropertyUtils.getLongProperty(config, MODIFICATION_CHECK_INTERVAL, 2));
+        velocityEngine.setProperty(RuntimeConstants.RESOURCE_MANAGER_DEFAULTCACHE_SIZE,
+            PropertyUtils.getIntProperty(config, CACHE_SIZE, 89));
         velocityEngine.setApplicationAttribute("jakarta.servlet.ServletContext", servletContext);
         velocityEngine.init();
         return velocityEngine;
     }
 
+    private static String loaderProperty(String name) {
+        return RuntimeConstants.RESOURCE_LOADER + "." + LOADER + "." + name;
+    }
+
 }
@@ -24,13 +24,16 @@ import org.apache.velocity.runtime.resource.loader.ResourceLoader;
 import org.apache.velocity.util.ExtProperties;
 
 import jakarta.servlet.ServletContext;
+import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 
 /**
- * Simple implementation of {@link ResourceLoader} for loading resources from {@link ServletContext}
+ * Simple implementation of {@link ResourceLoader} for loading resources from {@link ServletContext}.
+ * Modification times are reported for all resources which are backed by a real file, so that
+ * Velocity's resource cache is able to detect changed templates.
  *
  * @author Christian Kaltepoth
  */
@@ -60,12 +63,16 @@ public class ServletContextResourceLoader extends ResourceLoader {
 
     @Override
     public boolean isSourceModified(Resource resource) {
-        return false;
+        return getLastModified(resource) != resource.getLastModified();
     }
 
     @Override
     public long getLastModified(Resource resource) {
-        return 0;
+        String path = servletContext.getRealPath(resource.getName());
+        if (path == null) {
+            return 0;   // packed archive, resources never change
+        }
+        return new File(path).lastModified();
     }
 
 }
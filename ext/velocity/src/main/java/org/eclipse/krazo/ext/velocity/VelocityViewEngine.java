@@ -30,13 +30,9 @@ import jakarta.inject.Inject;
 import jakarta.mvc.engine.ViewEngine;
 import jakarta.mvc.engine.ViewEngineContext;
 import jakarta.mvc.engine.ViewEngineException;
-import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Class VelocityViewEngine.
@@ -61,13 +57,12 @@ public class VelocityViewEngine extends ViewEngineBase {
 
         Charset charset = resolveCharsetAndSetContentType(context);
 
-        try (Writer writer = new OutputStreamWriter(context.getOutputStream(), charset)) {
+        try (Writer writer = createWriter(context.getOutputStream(), charset)) {
 
             Template template = velocityEngine.getTemplate(resolveView(context));
 
-            Map<String, Object> model = new HashMap<>(context.getModels().asMap());
-            model.put("request", context.getRequest(HttpServletRequest.class));
-            VelocityContext velocityContext = new VelocityContext(model);
+            // variables set by the template end up in the outer context, the models stay untouched
+            VelocityContext velocityContext = new VelocityContext(new VelocityContext(getModelsWithRequest(context)));
 
             template.merge(velocityContext, writer);
 
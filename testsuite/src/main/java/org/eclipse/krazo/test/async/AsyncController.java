@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.test.async;
+
+import jakarta.inject.Inject;
+import jakarta.mvc.Controller;
+import jakarta.mvc.Models;
+import jakarta.mvc.View;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import org.eclipse.krazo.lifecycle.RequestContextExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Controller which puts its models from continuations of the returned stage.
+ */
+@Controller
+@Path("async")
+public class AsyncController {
+
+    @Inject
+    private Models models;
+
+    @Inject
+    private RequestContextExecutor requestContextExecutor;
+
+    @GET
+    @View("async.jsp")
+    public CompletionStage<Void> continuation() {
+        return CompletableFuture.supplyAsync(() -> "from continuation")
+            .thenAcceptAsync(message -> models.put("message", message), requestContextExecutor.get());
+    }
+
+    @GET
+    @Path("before")
+    @View("async.jsp")
+    public CompletionStage<Void> before() {
+        models.put("message", "before return");
+        return CompletableFuture.runAsync(() -> { });
+    }
+}
@@ -0,0 +1,11 @@
+<%@ page contentType="text/html;charset=UTF-8" language="java" %>
+<!doctype html>
+<html>
+<head>
+    <title>Async Test</title>
+</head>
+<body>
+    <h1>Async Test</h1>
+    <p id="message">${message}</p>
+</body>
+</html>
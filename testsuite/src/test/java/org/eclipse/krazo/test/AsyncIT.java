@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020 Eclipse Krazo committers and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.krazo.test;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import org.eclipse.krazo.test.util.WebArchiveBuilder;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.net.URL;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that models put by asynchronous controllers reach the view.
+ */
+@RunWith(Arquillian.class)
+public class AsyncIT {
+
+    private static final String WEB_INF_SRC = "src/main/resources/async/";
+
+    @ArquillianResource
+    private URL baseURL;
+
+    private WebClient webClient;
+
+    @Before
+    public void setUp() {
+        webClient = new WebClient();
+    }
+
+    @After
+    public void tearDown() {
+        webClient.close();
+    }
+
+    @Deployment(testable = false, name = "async")
+    public static Archive createDeployment() {
+        return new WebArchiveBuilder()
+            .addPackage("org.eclipse.krazo.test.async")
+            .addView(Paths.get(WEB_INF_SRC).resolve("views/async.jsp").toFile(), "async.jsp")
+            .addBeansXml()
+            .build();
+    }
+
+    @Test
+    public void rendersModelPutByContinuation() throws Exception {
+        final HtmlPage page = webClient.getPage(baseURL + "resources/async");
+        assertEquals("from continuation", page.getElementById("message").asText());
+    }
+
+    @Test
+    public void rendersModelPutBeforeReturn() throws Exception {
+        final HtmlPage page = webClient.getPage(baseURL + "resources/async/before");
+        assertEquals("before return", page.getElementById("message").asText());
+    }
+}